@@ -0,0 +1,40 @@
+package main.najah.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import main.najah.code.Calculator;
+
+/**
+ * Throughput of the {@link Calculator} operations. Operands come from a
+ * per-thread counter so the JIT cannot fold the calls into constants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CalculatorBenchmark {
+
+    Calculator calc = new Calculator();
+    int i;
+
+    @Benchmark
+    public int add() {
+        return calc.add(1, 2, 3, i++);
+    }
+
+    @Benchmark
+    public int divide() {
+        return calc.divide(i++, 7);
+    }
+
+    @Benchmark
+    public int factorial() {
+        return calc.factorial(i++ & 15);
+    }
+}
@@ -0,0 +1,64 @@
+package main.najah.bench;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks at 1, 2, 4, ... threads and writes every result
+ * to one JSON file.
+ * <p>
+ * Usage: {@code java main.najah.bench.JmhBenchmarks [-t maxThreads] [-o results.json]
+ * [JMH options] [benchmark regex]}. Everything other than {@code -t} and {@code -o}
+ * is passed to JMH, for example {@code -f 1 -wi 3 -i 5 RecipeBook}. Each record
+ * in the output carries its thread count, so runs can be compared per count.
+ */
+public class JmhBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        String out = "jmh-result.json";
+        List<String> jmhArgs = new ArrayList<>();
+        for (int a = 0; a < args.length; a++) {
+            if (args[a].equals("-t") && a + 1 < args.length) {
+                maxThreads = Integer.parseInt(args[++a]);
+            } else if (args[a].equals("-o") && a + 1 < args.length) {
+                out = args[++a];
+            } else {
+                jmhArgs.add(args[a]);
+            }
+        }
+
+        CommandLineOptions cli = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        List<RunResult> results = new ArrayList<>();
+        for (int threads : threadCounts(maxThreads)) {
+            Options options = new OptionsBuilder().parent(cli).threads(threads).build();
+            results.addAll(new Runner(options).run());
+        }
+        try (PrintStream json = new PrintStream(out, StandardCharsets.UTF_8)) {
+            ResultFormatFactory.getInstance(ResultFormatType.JSON, json).writeOut(results);
+        }
+        System.out.println("Results written to " + out);
+    }
+
+    /**
+     * Returns 1, 2, 4, ... up to and including max.
+     * @param max
+     * @return int[]
+     */
+    static int[] threadCounts(int max) {
+        List<Integer> counts = new ArrayList<>();
+        for (int t = 1; t < max; t *= 2) counts.add(t);
+        counts.add(Math.max(1, max));
+        return counts.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,55 @@
+package main.najah.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import main.najah.code.Product;
+
+/**
+ * Throughput of {@link Product} pricing. The final price is read from one
+ * product shared by every thread; discounts go to a product per thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProductBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        Product product;
+
+        @Setup
+        public void setUp() {
+            product = new Product("Laptop", 1000.0);
+            product.applyDiscount(10);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Own {
+        Product product;
+        int i;
+
+        @Setup
+        public void setUp() {
+            product = new Product("Laptop", 1000.0);
+        }
+    }
+
+    @Benchmark
+    public double getFinalPrice(Shared s) {
+        return s.product.getFinalPrice();
+    }
+
+    @Benchmark
+    public double applyDiscount(Own o) {
+        o.product.applyDiscount(o.i++ % 51);
+        return o.product.getDiscount();
+    }
+}
@@ -0,0 +1,58 @@
+package main.najah.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import main.najah.code.Recipe;
+import main.najah.code.RecipeException;
+
+/**
+ * Throughput of the validating {@link Recipe} setters, on the accepted path
+ * and on the rejected path in each {@link RecipeException.Mode}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RecipeBenchmark {
+
+    private static final String[] AMOUNTS = { "1", "2", "3", "4" };
+
+    /** Only the rejected path depends on the exception mode. */
+    @State(Scope.Thread)
+    public static class Rejection {
+        @Param({ "FULL", "STACKLESS", "CACHED" })
+        RecipeException.Mode mode;
+    }
+
+    Recipe recipe = new Recipe();
+    int i;
+
+    @Benchmark
+    public int setters() throws RecipeException {
+        String amount = AMOUNTS[i++ & 3];
+        recipe.setName("Mocha");
+        recipe.setPrice("50");
+        recipe.setAmtCoffee(amount);
+        recipe.setAmtMilk(amount);
+        recipe.setAmtSugar(amount);
+        recipe.setAmtChocolate(amount);
+        return recipe.getAmtChocolate();
+    }
+
+    @Benchmark
+    public Object settersInvalid(Rejection r) {
+        try {
+            recipe.setAmtCoffee((i++ & 1) == 0 ? "-1" : "x", r.mode);
+            throw new IllegalStateException("Invalid amount accepted");
+        } catch (RecipeException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package main.najah.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import main.najah.code.Recipe;
+import main.najah.code.RecipeBook;
+
+/**
+ * Throughput of {@link RecipeBook}. Reads and edits go to one full book shared
+ * by every thread, so they measure contention on its monitor as the thread
+ * count grows; adds and deletes go to a book per thread, so every call takes
+ * the real insert and delete paths rather than the book-full and empty-slot
+ * rejections.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RecipeBookBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        RecipeBook book;
+
+        @Setup
+        public void setUp() {
+            book = new RecipeBook();
+            for (int k = 0; k < 4; k++) {
+                Recipe r = new Recipe();
+                r.setName("Recipe" + k);
+                book.addRecipe(r);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Own {
+        RecipeBook book;
+        Recipe[] recipes = new Recipe[4];
+        Recipe edit = new Recipe();
+        int i;
+
+        @Setup
+        public void setUp(ThreadParams thread) {
+            book = new RecipeBook();
+            for (int k = 0; k < recipes.length; k++) {
+                recipes[k] = new Recipe();
+                recipes[k].setName("Extra" + thread.getThreadIndex() + "-" + k);
+            }
+        }
+    }
+
+    @Benchmark
+    public Recipe[] getRecipes(Shared s) {
+        return s.book.getRecipes();
+    }
+
+    @Benchmark
+    public String editRecipe(Shared s, Own o) {
+        return s.book.editRecipe(o.i++ & 3, o.edit);
+    }
+
+    @Benchmark
+    public String addDeleteRecipe(Own o) {
+        if (!o.book.addRecipe(o.recipes[o.i++ & 3])) throw new IllegalStateException("Add rejected");
+        String name = o.book.deleteRecipe(0);
+        if (name == null) throw new IllegalStateException("Delete found no recipe");
+        return name;
+    }
+}
@@ -0,0 +1,36 @@
+package main.najah.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import main.najah.code.UserService;
+
+/**
+ * Throughput of {@link UserService}, cycling through valid and invalid inputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UserServiceBenchmark {
+
+    private static final String[] EMAILS = { "user@example.com", "not-an-email", "a@b", "first.last@mail.org" };
+
+    UserService service = new UserService();
+    int i;
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return service.isValidEmail(EMAILS[i++ & 3]);
+    }
+
+    @Benchmark
+    public boolean authenticate() {
+        return service.authenticate("admin", (i++ & 1) == 0 ? "1234" : "4321");
+    }
+}
@@ -0,0 +1,216 @@
+package main.najah.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Generates reproducible synthetic workloads for the domain classes.
+ * <p>
+ * The same seed always yields the same trace: recipe names skewed towards a
+ * few popular ones, small ingredient amounts, log-normal product prices,
+ * discounts, emails and logins, each with a small share of invalid values so
+ * that error paths are exercised too. Arrivals follow a Poisson process at
+ * the requested rate, or are all at offset 0 when the rate is 0. Traces are
+ * saved as text with {@link #writeTrace} and replayed by {@link TraceReplayer}.
+ * <p>
+ * Usage: {@code java main.najah.bench.LoadGenerator [-n ops] [-r opsPerSec]
+ * [-s seed] [-o trace.txt] [-i trace.txt] [-x speed]}. Without {@code -i}
+ * a trace is generated, and written to {@code -o} if given; it is then
+ * replayed at {@code -x} times its recorded rate (0 for as fast as possible).
+ */
+public class LoadGenerator {
+
+    private static final String[] RECIPES = { "Mocha", "Latte", "Espresso", "Americano", "Cappuccino",
+        "Macchiato", "FlatWhite", "Cortado", "HotChocolate", "Affogato", "IrishCoffee", "ColdBrew" };
+    private static final int PRODUCTS = 64;
+    private static final int USERS = 256;
+
+    private final long seed;
+    private final double opsPerSec;
+    private final double invalidRate;
+    private final String[] productPrices = new String[PRODUCTS];
+
+    /**
+     * Creates a generator in which 2% of the values are invalid.
+     * @param seed
+     * @param opsPerSec   mean arrival rate, or 0 for an unpaced trace
+     */
+    public LoadGenerator(long seed, double opsPerSec) {
+        this(seed, opsPerSec, 0.02);
+    }
+
+    /**
+     * @param seed
+     * @param opsPerSec     mean arrival rate, or 0 for an unpaced trace
+     * @param invalidRate   share of generated values that should be rejected, 0 to 1
+     */
+    public LoadGenerator(long seed, double opsPerSec, double invalidRate) {
+        if (opsPerSec < 0) throw new IllegalArgumentException("Rate must be non-negative");
+        if (invalidRate < 0 || invalidRate > 1) throw new IllegalArgumentException("Invalid rate must be between 0 and 1");
+        this.seed = seed;
+        this.opsPerSec = opsPerSec;
+        this.invalidRate = invalidRate;
+        SplittableRandom prices = new SplittableRandom(seed ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < PRODUCTS; i++) {
+            double price = Math.exp(3.5 + 0.8 * prices.nextGaussian());
+            productPrices[i] = String.format(Locale.ROOT, "%.2f", price);
+        }
+    }
+
+    /**
+     * Generates a trace of the given length.
+     * @param count
+     * @return List of TraceOp, ordered by offset
+     */
+    public List<TraceOp> generate(int count) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<TraceOp> ops = new ArrayList<>(count);
+        double at = 0;
+        for (int i = 0; i < count; i++) {
+            if (opsPerSec > 0 && i > 0) {
+                at += -Math.log(1 - random.nextDouble()) / opsPerSec * 1e9;
+            }
+            ops.add(next(random, (long) at));
+        }
+        return ops;
+    }
+
+    private TraceOp next(SplittableRandom random, long at) {
+        int target = random.nextInt(100);
+        if (target < 40) {
+            int op = random.nextInt(10);
+            if (op < 7) return new TraceOp(at, TraceOp.Kind.RECIPE_GET);
+            if (op == 7) return new TraceOp(at, TraceOp.Kind.RECIPE_DELETE, slot(random));
+            String[] recipe = recipe(random);
+            if (op == 8) return new TraceOp(at, TraceOp.Kind.RECIPE_ADD, recipe);
+            String[] edit = new String[7];
+            edit[0] = slot(random);
+            System.arraycopy(recipe, 0, edit, 1, 6);
+            return new TraceOp(at, TraceOp.Kind.RECIPE_EDIT, edit);
+        }
+        if (target < 60) {
+            int p = random.nextInt(PRODUCTS);
+            String product = "Product" + p;
+            if (random.nextBoolean()) {
+                return new TraceOp(at, TraceOp.Kind.PRODUCT_PRICE, product, productPrices[p]);
+            }
+            int discount = invalid(random) ? 51 + random.nextInt(50) : random.nextInt(51);
+            return new TraceOp(at, TraceOp.Kind.PRODUCT_DISCOUNT, product, productPrices[p], String.valueOf(discount));
+        }
+        if (target < 80) {
+            int u = random.nextInt(USERS);
+            if (random.nextBoolean()) {
+                String email = invalid(random) ? "user" + u + ".example.com" : "user" + u + "@example.com";
+                return new TraceOp(at, TraceOp.Kind.EMAIL, email);
+            }
+            if (invalid(random) || random.nextInt(10) < 3) {
+                return new TraceOp(at, TraceOp.Kind.LOGIN, "user" + u, "pw" + u);
+            }
+            return new TraceOp(at, TraceOp.Kind.LOGIN, "admin", "1234");
+        }
+        int op = random.nextInt(3);
+        if (op == 0) {
+            String[] numbers = new String[2 + random.nextInt(4)];
+            for (int i = 0; i < numbers.length; i++) numbers[i] = String.valueOf(random.nextInt(-1000, 1001));
+            return new TraceOp(at, TraceOp.Kind.CALC_ADD, numbers);
+        }
+        if (op == 1) {
+            int divisor = invalid(random) ? 0 : random.nextInt(1, 11) * (random.nextBoolean() ? 1 : -1);
+            return new TraceOp(at, TraceOp.Kind.CALC_DIVIDE, String.valueOf(random.nextInt(-10_000, 10_001)),
+                String.valueOf(divisor));
+        }
+        int n = invalid(random) ? -1 - random.nextInt(5) : random.nextInt(13);
+        return new TraceOp(at, TraceOp.Kind.CALC_FACTORIAL, String.valueOf(n));
+    }
+
+    /** Name skewed towards the first entries, then price and four amounts. */
+    private String[] recipe(SplittableRandom random) {
+        double u = random.nextDouble();
+        String[] r = new String[6];
+        r[0] = RECIPES[(int) (u * u * RECIPES.length)];
+        r[1] = String.valueOf(random.nextInt(10, 100));
+        for (int i = 2; i < 6; i++) r[i] = String.valueOf(random.nextInt(0, 6));
+        if (invalid(random)) r[1 + random.nextInt(5)] = String.valueOf(-1 - random.nextInt(5));
+        return r;
+    }
+
+    private static String slot(SplittableRandom random) {
+        return String.valueOf(random.nextInt(4));
+    }
+
+    private boolean invalid(SplittableRandom random) {
+        return random.nextDouble() < invalidRate;
+    }
+
+    /**
+     * Writes a trace, one operation per line.
+     * @param ops
+     * @param out
+     */
+    public static void writeTrace(List<TraceOp> ops, Writer out) throws IOException {
+        for (TraceOp op : ops) {
+            out.write(op.toString());
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a trace written by {@link #writeTrace}. Blank lines and lines
+     * starting with {@code #} are skipped.
+     * @param in
+     * @return List of TraceOp
+     */
+    public static List<TraceOp> readTrace(Reader in) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        List<TraceOp> ops = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank() && !line.startsWith("#")) ops.add(TraceOp.parse(line));
+        }
+        return ops;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int count = 100_000;
+        double rate = 10_000;
+        long seed = 42;
+        double speed = 1;
+        String output = null;
+        String input = null;
+        for (int a = 0; a + 1 < args.length; a += 2) {
+            switch (args[a]) {
+                case "-n": count = Integer.parseInt(args[a + 1]); break;
+                case "-r": rate = Double.parseDouble(args[a + 1]); break;
+                case "-s": seed = Long.parseLong(args[a + 1]); break;
+                case "-x": speed = Double.parseDouble(args[a + 1]); break;
+                case "-o": output = args[a + 1]; break;
+                case "-i": input = args[a + 1]; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[a]);
+            }
+        }
+        List<TraceOp> ops;
+        if (input != null) {
+            try (Reader in = Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8)) {
+                ops = readTrace(in);
+            }
+        } else {
+            ops = new LoadGenerator(seed, rate).generate(count);
+            if (output != null) {
+                try (Writer out = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+                    writeTrace(ops, out);
+                }
+            }
+        }
+        System.out.println(new TraceReplayer(speed).replay(ops));
+    }
+}
@@ -0,0 +1,206 @@
+package main.najah.bench;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import main.najah.code.Recipe;
+import main.najah.code.RecipeBook;
+import main.najah.metrics.LatencyHistogram;
+
+/**
+ * Drives one {@link RecipeBook} from many threads with a mixed workload.
+ * <p>
+ * Every worker picks {@code getRecipes} with the configured read ratio and
+ * otherwise one of add, delete or edit with equal probability, using names from
+ * a small pool so that duplicate adds really collide. Latencies are recorded
+ * per operation, and a checker thread repeatedly snapshots the book under its
+ * monitor to make sure no two slots ever hold the same non-empty name.
+ * <p>
+ * Usage: {@code java main.najah.bench.RecipeBookStress [-t 1,2,4,8] [-r 0.9]
+ * [-d durationMs] [-s seed]}.
+ */
+public class RecipeBookStress {
+
+    /** Operations issued by the workload. */
+    public enum Op { GET, ADD, DELETE, EDIT }
+
+    private static final int NAME_POOL = 16;
+
+    private final Supplier<? extends RecipeBook> books;
+    private final double readRatio;
+    private final long durationMillis;
+    private final long seed;
+
+    /**
+     * @param books            creates the book under test, once per run
+     * @param readRatio        share of operations that are getRecipes, 0 to 1
+     * @param durationMillis   how long each run lasts
+     * @param seed             seed for the per-thread operation streams
+     */
+    public RecipeBookStress(Supplier<? extends RecipeBook> books, double readRatio, long durationMillis, long seed) {
+        if (readRatio < 0 || readRatio > 1) throw new IllegalArgumentException("Read ratio must be between 0 and 1");
+        if (durationMillis <= 0) throw new IllegalArgumentException("Duration must be positive");
+        this.books = books;
+        this.readRatio = readRatio;
+        this.durationMillis = durationMillis;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the workload with the given number of threads.
+     * @param threads
+     * @return StressResult
+     */
+    public StressResult run(int threads) throws InterruptedException {
+        RecipeBook book = books.get();
+        Recipe[] names = new Recipe[NAME_POOL];
+        for (int i = 0; i < NAME_POOL; i++) {
+            names[i] = new Recipe();
+            names[i].setName("Recipe" + i);
+        }
+
+        List<Map<Op, LatencyHistogram>> perThread = new ArrayList<>();
+        CyclicBarrier start = new CyclicBarrier(threads + 1);
+        long[] elapsed = new long[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            perThread.add(histograms());
+            SplittableRandom random = new SplittableRandom(seed + t);
+            workers[t] = new Thread(() -> {
+                Map<Op, LatencyHistogram> hist = perThread.get(id);
+                await(start);
+                long begin = System.nanoTime();
+                long end = begin + durationMillis * 1_000_000L;
+                long now = begin;
+                while (now < end) {
+                    Op op = pick(random);
+                    int slot = random.nextInt(4);
+                    Recipe r = names[random.nextInt(NAME_POOL)];
+                    switch (op) {
+                        case GET: book.getRecipes(); break;
+                        case ADD: book.addRecipe(r); break;
+                        case DELETE: book.deleteRecipe(slot); break;
+                        default: book.editRecipe(slot, copyOf(r)); break;
+                    }
+                    long after = System.nanoTime();
+                    hist.get(op).record(after - now);
+                    now = after;
+                }
+                elapsed[id] = now - begin;
+            }, "stress-" + t);
+            workers[t].start();
+        }
+
+        AtomicLong checks = new AtomicLong();
+        AtomicLong violations = new AtomicLong();
+        Thread checker = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!namesUnique(book)) violations.incrementAndGet();
+                checks.incrementAndGet();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "stress-checker");
+        checker.setDaemon(true);
+
+        await(start);
+        checker.start();
+        for (Thread w : workers) w.join();
+        checker.interrupt();
+        checker.join();
+        if (!namesUnique(book)) violations.incrementAndGet();
+
+        Map<Op, LatencyHistogram> merged = histograms();
+        double opsPerSec = 0;
+        for (int t = 0; t < threads; t++) {
+            long ops = 0;
+            for (Map.Entry<Op, LatencyHistogram> e : perThread.get(t).entrySet()) {
+                merged.get(e.getKey()).add(e.getValue());
+                ops += e.getValue().getCount();
+            }
+            opsPerSec += ops * 1e9 / elapsed[t];
+        }
+        return new StressResult(threads, readRatio, opsPerSec, merged, checks.get() + 1, violations.get());
+    }
+
+    /**
+     * Returns true if no two slots of the book hold the same non-empty name.
+     * Deleted and edited slots keep an unnamed recipe, which is not a duplicate.
+     * @param book
+     * @return boolean
+     */
+    public static boolean namesUnique(RecipeBook book) {
+        Recipe[] snapshot;
+        synchronized (book) {
+            snapshot = book.getRecipes().clone();
+        }
+        Set<String> seen = new HashSet<>();
+        for (Recipe r : snapshot) {
+            if (r != null && !r.getName().isEmpty() && !seen.add(r.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Op pick(SplittableRandom random) {
+        if (random.nextDouble() < readRatio) return Op.GET;
+        switch (random.nextInt(3)) {
+            case 0: return Op.ADD;
+            case 1: return Op.DELETE;
+            default: return Op.EDIT;
+        }
+    }
+
+    private static Recipe copyOf(Recipe r) {
+        Recipe copy = new Recipe();
+        copy.setName(r.getName());
+        return copy;
+    }
+
+    private static Map<Op, LatencyHistogram> histograms() {
+        Map<Op, LatencyHistogram> m = new EnumMap<>(Op.class);
+        for (Op op : Op.values()) m.put(op, new LatencyHistogram());
+        return m;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String threads = "1,2,4," + Runtime.getRuntime().availableProcessors();
+        double readRatio = 0.9;
+        long duration = 2000;
+        long seed = 42;
+        for (int a = 0; a + 1 < args.length; a += 2) {
+            switch (args[a]) {
+                case "-t": threads = args[a + 1]; break;
+                case "-r": readRatio = Double.parseDouble(args[a + 1]); break;
+                case "-d": duration = Long.parseLong(args[a + 1]); break;
+                case "-s": seed = Long.parseLong(args[a + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[a]);
+            }
+        }
+        RecipeBookStress stress = new RecipeBookStress(RecipeBook::new, readRatio, duration, seed);
+        for (String t : threads.split(",")) {
+            System.out.println(stress.run(Integer.parseInt(t.trim())));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package main.najah.bench;
+
+import java.util.Locale;
+import java.util.Map;
+
+import main.najah.metrics.LatencyHistogram;
+
+/**
+ * Outcome of one {@link TraceReplayer} run.
+ */
+public class ReplayResult {
+    private final int operations;
+    private final long errors;
+    private final long elapsedNanos;
+    private final long maxLagNanos;
+    private final long checksum;
+    private final Map<TraceOp.Kind, LatencyHistogram> latencies;
+
+    public ReplayResult(int operations, long errors, long elapsedNanos, long maxLagNanos, long checksum,
+            Map<TraceOp.Kind, LatencyHistogram> latencies) {
+        this.operations = operations;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.maxLagNanos = maxLagNanos;
+        this.checksum = checksum;
+        this.latencies = latencies;
+    }
+
+    public int getOperations() { return operations; }
+    public long getErrors() { return errors; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /** Longest time an operation started after it was scheduled. */
+    public long getMaxLagNanos() { return maxLagNanos; }
+
+    /** Combined outcome of every operation; equal for replays of the same trace. */
+    public long getChecksum() { return checksum; }
+
+    public double getOpsPerSec() {
+        return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the latencies recorded for one kind of operation, or null if
+     * the trace had none.
+     * @param kind
+     * @return LatencyHistogram
+     */
+    public LatencyHistogram getLatency(TraceOp.Kind kind) {
+        return latencies.get(kind);
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "ops=%d errors=%d %,.0f ops/s max lag=%dns checksum=%016x%n",
+            operations, errors, getOpsPerSec(), maxLagNanos, checksum));
+        for (Map.Entry<TraceOp.Kind, LatencyHistogram> e : latencies.entrySet()) {
+            LatencyHistogram h = e.getValue();
+            sb.append(String.format(Locale.ROOT, "  %-16s n=%-9d p50=%8dns p99=%8dns max=%8dns%n", e.getKey(),
+                h.getCount(), h.getValueAtPercentile(50), h.getValueAtPercentile(99), h.getMax()));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package main.najah.bench;
+
+import java.util.Locale;
+import java.util.Map;
+
+import main.najah.metrics.LatencyHistogram;
+
+/**
+ * Outcome of one {@link RecipeBookStress} run.
+ */
+public class StressResult {
+    private final int threads;
+    private final double readRatio;
+    private final double opsPerSec;
+    private final Map<RecipeBookStress.Op, LatencyHistogram> latencies;
+    private final long checks;
+    private final long violations;
+
+    public StressResult(int threads, double readRatio, double opsPerSec,
+            Map<RecipeBookStress.Op, LatencyHistogram> latencies, long checks, long violations) {
+        this.threads = threads;
+        this.readRatio = readRatio;
+        this.opsPerSec = opsPerSec;
+        this.latencies = latencies;
+        this.checks = checks;
+        this.violations = violations;
+    }
+
+    public int getThreads() { return threads; }
+    public double getReadRatio() { return readRatio; }
+    public double getOpsPerSec() { return opsPerSec; }
+    public long getInvariantChecks() { return checks; }
+    public long getInvariantViolations() { return violations; }
+
+    /**
+     * Returns the latencies recorded for one operation.
+     * @param op
+     * @return LatencyHistogram
+     */
+    public LatencyHistogram getLatency(RecipeBookStress.Op op) {
+        return latencies.get(op);
+    }
+
+    /**
+     * Returns the latencies of all operations combined.
+     * @return LatencyHistogram
+     */
+    public LatencyHistogram getLatency() {
+        LatencyHistogram all = new LatencyHistogram();
+        for (LatencyHistogram h : latencies.values()) all.add(h);
+        return all;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "threads=%d reads=%.0f%% %,.0f ops/s invariants %d/%d ok%n",
+            threads, readRatio * 100, opsPerSec, checks - violations, checks));
+        for (Map.Entry<RecipeBookStress.Op, LatencyHistogram> e : latencies.entrySet()) {
+            sb.append(line(e.getKey().toString(), e.getValue()));
+        }
+        sb.append(line("ALL", getLatency()));
+        return sb.toString();
+    }
+
+    private static String line(String name, LatencyHistogram h) {
+        return String.format(Locale.ROOT, "  %-6s n=%-10d p50=%8dns p99=%8dns p999=%8dns max=%8dns%n", name,
+            h.getCount(), h.getValueAtPercentile(50), h.getValueAtPercentile(99),
+            h.getValueAtPercentile(99.9), h.getMax());
+    }
+}
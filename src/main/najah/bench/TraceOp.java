@@ -0,0 +1,115 @@
+package main.najah.bench;
+
+import java.util.Arrays;
+
+/**
+ * One operation of a recorded workload trace, scheduled at a fixed offset
+ * from the start of the replay.
+ * <p>
+ * A trace line is {@code offsetNanos KIND arg...}, separated by single
+ * spaces; arguments are kept as the strings passed to the domain classes, so
+ * invalid values replay exactly as they were generated.
+ */
+public final class TraceOp {
+
+    /** Domain operations a trace can contain, with their arguments. */
+    public enum Kind {
+        /** name price coffee milk sugar chocolate */
+        RECIPE_ADD(6),
+        /** slot name price coffee milk sugar chocolate */
+        RECIPE_EDIT(7),
+        /** slot */
+        RECIPE_DELETE(1),
+        RECIPE_GET(0),
+        /** product price discount */
+        PRODUCT_DISCOUNT(3),
+        /** product price */
+        PRODUCT_PRICE(2),
+        /** email */
+        EMAIL(1),
+        /** username password */
+        LOGIN(2),
+        /** number... */
+        CALC_ADD(-1),
+        /** a b */
+        CALC_DIVIDE(2),
+        /** n */
+        CALC_FACTORIAL(1);
+
+        private final int arity;
+
+        Kind(int arity) {
+            this.arity = arity;
+        }
+    }
+
+    private final long atNanos;
+    private final Kind kind;
+    private final String[] args;
+
+    /**
+     * @param atNanos   offset from the start of the replay
+     * @param kind
+     * @param args      arguments, none of which may be empty or contain whitespace
+     */
+    public TraceOp(long atNanos, Kind kind, String... args) {
+        if (atNanos < 0) throw new IllegalArgumentException("Offset must be non-negative");
+        if (kind.arity >= 0 ? args.length != kind.arity : args.length == 0) {
+            throw new IllegalArgumentException(kind + " takes " + (kind.arity >= 0 ? kind.arity : "1 or more")
+                + " arguments, got " + args.length);
+        }
+        for (String a : args) {
+            if (a.isEmpty() || a.chars().anyMatch(Character::isWhitespace)) {
+                throw new IllegalArgumentException("Invalid argument '" + a + "'");
+            }
+        }
+        this.atNanos = atNanos;
+        this.kind = kind;
+        this.args = args.clone();
+    }
+
+    /**
+     * Parses a line written by {@link #toString()}.
+     * @param line
+     * @return TraceOp
+     */
+    public static TraceOp parse(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length < 2) throw new IllegalArgumentException("Invalid trace line: " + line);
+        try {
+            return new TraceOp(Long.parseLong(parts[0]), Kind.valueOf(parts[1]),
+                Arrays.copyOfRange(parts, 2, parts.length));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid trace line: " + line, e);
+        }
+    }
+
+    public long getAtNanos() { return atNanos; }
+    public Kind getKind() { return kind; }
+    public int getArgCount() { return args.length; }
+
+    public String getArg(int i) {
+        return args[i];
+    }
+
+    int intArg(int i) {
+        return Integer.parseInt(args[i]);
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append(atNanos).append(' ').append(kind);
+        for (String a : args) sb.append(' ').append(a);
+        return sb.toString();
+    }
+
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(atNanos) + kind.hashCode()) + Arrays.hashCode(args);
+    }
+
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof TraceOp)) return false;
+        TraceOp other = (TraceOp) obj;
+        return atNanos == other.atNanos && kind == other.kind && Arrays.equals(args, other.args);
+    }
+}
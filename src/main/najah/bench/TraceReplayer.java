@@ -0,0 +1,150 @@
+package main.najah.bench;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import main.najah.code.Calculator;
+import main.najah.code.Product;
+import main.najah.code.Recipe;
+import main.najah.code.RecipeBook;
+import main.najah.code.RecipeException;
+import main.najah.code.UserService;
+import main.najah.metrics.LatencyHistogram;
+
+/**
+ * Replays a trace of {@link TraceOp}s against fresh domain objects, keeping
+ * to the trace's schedule.
+ * <p>
+ * Every replay starts from a new {@link RecipeBook}, {@link UserService} and
+ * {@link Calculator}, and creates each product the first time the trace names
+ * it, so replaying the same trace always produces the same outcomes; the
+ * result's checksum folds all of them together to make that easy to verify.
+ * When paced, latencies are measured from the time an operation was
+ * scheduled rather than when it actually started, so falling behind the
+ * schedule shows up in the percentiles instead of being hidden.
+ */
+public class TraceReplayer {
+
+    /** Spin instead of parking when the next operation is due this soon */
+    private static final long SPIN_NANOS = 50_000;
+
+    private final double speed;
+
+    /**
+     * @param speed   multiplier for the recorded rate, 0 to replay as fast as possible
+     */
+    public TraceReplayer(double speed) {
+        if (speed < 0) throw new IllegalArgumentException("Speed must be non-negative");
+        this.speed = speed;
+    }
+
+    /**
+     * Replays the trace on the calling thread.
+     * @param ops
+     * @return ReplayResult
+     */
+    public ReplayResult replay(List<TraceOp> ops) {
+        State state = new State();
+        Map<TraceOp.Kind, LatencyHistogram> latencies = new EnumMap<>(TraceOp.Kind.class);
+        long errors = 0;
+        long checksum = 17;
+        long maxLag = 0;
+        long begin = System.nanoTime();
+        for (TraceOp op : ops) {
+            long due = begin;
+            if (speed > 0) {
+                due += (long) (op.getAtNanos() / speed);
+                waitUntil(due);
+            }
+            long start = System.nanoTime();
+            maxLag = Math.max(maxLag, start - due);
+            long outcome;
+            try {
+                outcome = state.apply(op);
+            } catch (RecipeException | RuntimeException e) {
+                errors++;
+                outcome = e.getClass().getName().hashCode();
+            }
+            long end = System.nanoTime();
+            latencies.computeIfAbsent(op.getKind(), k -> new LatencyHistogram())
+                .record(end - (speed > 0 ? due : start));
+            checksum = 31 * checksum + outcome;
+        }
+        long elapsed = System.nanoTime() - begin;
+        return new ReplayResult(ops.size(), errors, elapsed, maxLag, checksum, latencies);
+    }
+
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /** Domain objects of one replay. */
+    private static final class State {
+        final RecipeBook book = new RecipeBook();
+        final UserService users = new UserService();
+        final Calculator calc = new Calculator();
+        final Map<String, Product> products = new HashMap<>();
+
+        /** Runs one operation and returns a value summarising its outcome. */
+        long apply(TraceOp op) throws RecipeException {
+            switch (op.getKind()) {
+                case RECIPE_ADD:
+                    return book.addRecipe(recipe(op, 0)) ? 1 : 0;
+                case RECIPE_EDIT:
+                    return String.valueOf(book.editRecipe(op.intArg(0), recipe(op, 1))).hashCode();
+                case RECIPE_DELETE:
+                    return String.valueOf(book.deleteRecipe(op.intArg(0))).hashCode();
+                case RECIPE_GET: {
+                    long h = 0;
+                    for (Recipe r : book.getRecipes()) h = 31 * h + (r == null ? 0 : r.getName().hashCode());
+                    return h;
+                }
+                case PRODUCT_DISCOUNT: {
+                    Product p = product(op);
+                    p.applyDiscount(Double.parseDouble(op.getArg(2)));
+                    return Double.doubleToLongBits(p.getFinalPrice());
+                }
+                case PRODUCT_PRICE:
+                    return Double.doubleToLongBits(product(op).getFinalPrice());
+                case EMAIL:
+                    return users.isValidEmail(op.getArg(0)) ? 1 : 0;
+                case LOGIN:
+                    return users.authenticate(op.getArg(0), op.getArg(1)) ? 1 : 0;
+                case CALC_ADD: {
+                    int[] numbers = new int[op.getArgCount()];
+                    for (int i = 0; i < numbers.length; i++) numbers[i] = op.intArg(i);
+                    return calc.add(numbers);
+                }
+                case CALC_DIVIDE:
+                    return calc.divide(op.intArg(0), op.intArg(1));
+                default:
+                    return calc.factorial(op.intArg(0));
+            }
+        }
+
+        private static Recipe recipe(TraceOp op, int first) throws RecipeException {
+            Recipe r = new Recipe();
+            r.setName(op.getArg(first));
+            r.setPrice(op.getArg(first + 1));
+            r.setAmtCoffee(op.getArg(first + 2));
+            r.setAmtMilk(op.getArg(first + 3));
+            r.setAmtSugar(op.getArg(first + 4));
+            r.setAmtChocolate(op.getArg(first + 5));
+            return r;
+        }
+
+        private Product product(TraceOp op) {
+            return products.computeIfAbsent(op.getArg(0), name -> new Product(name, Double.parseDouble(op.getArg(1))));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package main.najah.code;
+
+/**
+ * A request to brew the recipe held in one {@link RecipeBook} slot.
+ */
+public final class BrewOrder {
+    private final long id;
+    private final int slot;
+    private long enqueuedAt;
+
+    /**
+     * @param id     caller-chosen identifier, reported back with the batch
+     * @param slot   index of the recipe in the book
+     */
+    public BrewOrder(long id, int slot) {
+        if (slot < 0) throw new IllegalArgumentException("Slot must be non-negative");
+        this.id = id;
+        this.slot = slot;
+    }
+
+    public long getId() { return id; }
+    public int getSlot() { return slot; }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the order was queued.
+     * @return long
+     */
+    public long getEnqueuedAt() { return enqueuedAt; }
+
+    void setEnqueuedAt(long nanos) {
+        this.enqueuedAt = nanos;
+    }
+
+    public String toString() {
+        return "Order " + id + " [" + slot + "]";
+    }
+}
@@ -0,0 +1,227 @@
+package main.najah.code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import main.najah.metrics.ConcurrentHistogram;
+import main.najah.metrics.LatencyHistogram;
+
+/**
+ * Brews queued {@link BrewOrder}s in batches, one batch per recipe.
+ * <p>
+ * A single worker thread drains up to {@code maxBatch} orders from the
+ * {@link OrderQueue}, groups them by recipe slot, looks each recipe up once in
+ * the book's lock-free {@link RecipeBook#getMenu() menu} and hands the whole
+ * group to the {@link Brewer}. Orders for empty slots are counted as rejected,
+ * and orders in a batch whose brewer throws are counted as failed; the worker
+ * carries on with the next batch.
+ */
+public class BrewingScheduler implements AutoCloseable {
+
+    /** Brews one batch of orders for the same recipe. */
+    @FunctionalInterface
+    public interface Brewer {
+        void brew(ImmutableRecipe recipe, List<BrewOrder> orders);
+    }
+
+    private final RecipeBook book;
+    private final OrderQueue queue;
+    private final Brewer brewer;
+    private final int maxBatch;
+    private Thread worker;
+    private volatile boolean running = true;
+    private final AtomicInteger submitting = new AtomicInteger();
+
+    private final LongAdder brewed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final ConcurrentHistogram timeInQueue = new ConcurrentHistogram();
+    private final long startedAt = System.nanoTime();
+
+    private BrewingScheduler(RecipeBook book, int capacity, int maxBatch, Brewer brewer) {
+        if (maxBatch <= 0) throw new IllegalArgumentException("Batch size must be positive");
+        this.book = book;
+        this.queue = new OrderQueue(capacity);
+        this.brewer = brewer;
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Creates a scheduler and starts its worker thread.
+     * @param book       book the order slots refer to
+     * @param capacity   maximum number of queued orders
+     * @param maxBatch   maximum number of orders taken from the queue at once
+     * @param brewer     called on the worker thread for every batch
+     * @return BrewingScheduler
+     */
+    public static BrewingScheduler start(RecipeBook book, int capacity, int maxBatch, Brewer brewer) {
+        BrewingScheduler scheduler = new BrewingScheduler(book, capacity, maxBatch, brewer);
+        Thread worker = new Thread(scheduler::run, "brewing-scheduler");
+        worker.setDaemon(true);
+        scheduler.worker = worker;
+        worker.start();
+        return scheduler;
+    }
+
+    /**
+     * Queues an order without blocking.
+     * @param order
+     * @return boolean false if the queue is full or the scheduler is closed
+     */
+    public boolean submit(BrewOrder order) {
+        // The worker only stops once no submit that saw it running is still offering
+        submitting.incrementAndGet();
+        try {
+            if (!running) return false;
+            if (!queue.offer(order)) return false;
+        } finally {
+            submitting.decrementAndGet();
+        }
+        LockSupport.unpark(worker);
+        return true;
+    }
+
+    /**
+     * Returns the number of orders waiting to be brewed.
+     * @return int
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the counters gathered since the scheduler started.
+     * @return Stats
+     */
+    public Stats getStats() {
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        return new Stats(brewed.sum(), batches.sum(), rejected.sum(), failed.sum(), queue.size(), maxDepth.get(),
+            brewed.sum() / seconds, timeInQueue.snapshot());
+    }
+
+    /**
+     * Brews every order already queued, then stops the worker. Orders
+     * submitted afterwards are refused.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        BrewOrder[] drained = new BrewOrder[maxBatch];
+        List<List<BrewOrder>> bySlot = new ArrayList<>();
+        int idle = 0;
+        for (;;) {
+            maxDepth.accumulate(queue.size());
+            int n = queue.drain(drained, maxBatch);
+            if (n == 0) {
+                if (!running) {
+                    if (submitting.get() == 0 && queue.size() == 0) return;
+                    Thread.onSpinWait();
+                } else if (++idle < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    // submit() and close() unpark the worker
+                    LockSupport.park(this);
+                }
+                continue;
+            }
+            idle = 0;
+            List<ImmutableRecipe> menu = book.getMenu();
+            long now = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                BrewOrder o = drained[i];
+                timeInQueue.record(now - o.getEnqueuedAt());
+                if (o.getSlot() >= menu.size()) {
+                    rejected.increment();
+                    continue;
+                }
+                while (bySlot.size() <= o.getSlot()) bySlot.add(new ArrayList<>());
+                bySlot.get(o.getSlot()).add(o);
+            }
+            Arrays.fill(drained, 0, n, null);
+            brewBatches(menu, bySlot);
+        }
+    }
+
+    private void brewBatches(List<ImmutableRecipe> menu, List<List<BrewOrder>> bySlot) {
+        for (int slot = 0; slot < bySlot.size(); slot++) {
+            List<BrewOrder> orders = bySlot.get(slot);
+            if (orders.isEmpty()) continue;
+            ImmutableRecipe recipe = menu.get(slot);
+            if (recipe == null || recipe.getName().isEmpty()) {
+                rejected.add(orders.size());
+            } else {
+                try {
+                    brewer.brew(recipe, new ArrayList<>(orders));
+                    brewed.add(orders.size());
+                    batches.increment();
+                } catch (RuntimeException e) {
+                    failed.add(orders.size());
+                }
+            }
+            orders.clear();
+        }
+    }
+
+    /** Counters of a {@link BrewingScheduler}. */
+    public static final class Stats {
+        private final long brewed;
+        private final long batches;
+        private final long rejected;
+        private final long failed;
+        private final int queueDepth;
+        private final long maxQueueDepth;
+        private final double ordersPerSec;
+        private final LatencyHistogram timeInQueue;
+
+        Stats(long brewed, long batches, long rejected, long failed, int queueDepth, long maxQueueDepth,
+                double ordersPerSec, LatencyHistogram timeInQueue) {
+            this.brewed = brewed;
+            this.batches = batches;
+            this.rejected = rejected;
+            this.failed = failed;
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.ordersPerSec = ordersPerSec;
+            this.timeInQueue = timeInQueue;
+        }
+
+        public long getBrewed() { return brewed; }
+        public long getBatches() { return batches; }
+        public long getRejected() { return rejected; }
+        /** Orders in batches whose brewer threw. */
+        public long getFailed() { return failed; }
+        public int getQueueDepth() { return queueDepth; }
+        public long getMaxQueueDepth() { return maxQueueDepth; }
+        public double getOrdersPerSec() { return ordersPerSec; }
+        public LatencyHistogram getTimeInQueue() { return timeInQueue; }
+
+        public double getAverageBatchSize() {
+            return batches == 0 ? 0 : (double) brewed / batches;
+        }
+
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "brewed=%d batches=%d (avg %.1f) rejected=%d failed=%d depth=%d max=%d %.0f orders/s"
+                    + " queue p50=%dns p99=%dns",
+                brewed, batches, getAverageBatchSize(), rejected, failed, queueDepth, maxQueueDepth, ordersPerSec,
+                timeInQueue.getValueAtPercentile(50), timeInQueue.getValueAtPercentile(99));
+        }
+    }
+}
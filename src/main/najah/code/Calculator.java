@@ -1,21 +1,41 @@
 package main.najah.code;
 
+import main.najah.metrics.Metric;
+import main.najah.metrics.Metrics;
+
 public class Calculator {
+    private static final Metric ADD = Metrics.metric("Calculator.add");
+    private static final Metric DIVIDE = Metrics.metric("Calculator.divide");
+    private static final Metric FACTORIAL = Metrics.metric("Calculator.factorial");
+
     public int add(int... numbers) {
+        long start = ADD.start();
         int sum = 0;
         for (int n : numbers) sum += n;
+        ADD.stop(start);
         return sum;
     }
 
     public int divide(int a, int b) {
-        if (b == 0) throw new ArithmeticException("Cannot divide by zero");
-        return a / b;
+        long start = DIVIDE.start();
+        if (b == 0) {
+            DIVIDE.fail(start);
+            throw new ArithmeticException("Cannot divide by zero");
+        }
+        int result = a / b;
+        DIVIDE.stop(start);
+        return result;
     }
 
     public int factorial(int n) {
-        if (n < 0) throw new IllegalArgumentException("Negative input");
+        long start = FACTORIAL.start();
+        if (n < 0) {
+            FACTORIAL.fail(start);
+            throw new IllegalArgumentException("Negative input");
+        }
         int result = 1;
         for (int i = 2; i <= n; i++) result *= i;
+        FACTORIAL.stop(start);
         return result;
     }
 }
\ No newline at end of file
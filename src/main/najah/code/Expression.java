@@ -0,0 +1,283 @@
+package main.najah.code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An integer formula such as {@code (a + b) / c!}, parsed once and compiled
+ * into a tree of lambdas that can be evaluated any number of times.
+ * <p>
+ * Formulas use integer literals, variables, parentheses, unary minus, the
+ * binary operators {@code + - * /} and postfix {@code !}. Arithmetic follows
+ * {@link Calculator}: int overflow wraps, division truncates and throws
+ * {@link ArithmeticException} on zero, and the factorial of a negative number
+ * throws {@link IllegalArgumentException}. Parts without variables are
+ * computed at compile time, where dividing by a constant zero is rejected.
+ * <p>
+ * Variables are read from an {@code int[]} by position, so evaluation
+ * allocates nothing; {@link #evaluateAll(int[][], int[])} runs the formula
+ * over whole columns. Compiled expressions are immutable and safe for
+ * concurrent use.
+ */
+public final class Expression {
+
+    /** n! for every n where it does not wrap to zero; 34! and above do */
+    private static final int[] FACTORIALS = new int[34];
+    static {
+        FACTORIALS[0] = 1;
+        for (int i = 1; i < FACTORIALS.length; i++) FACTORIALS[i] = FACTORIALS[i - 1] * i;
+    }
+
+    @FunctionalInterface
+    private interface Node {
+        int eval(int[] vars);
+    }
+
+    private final String source;
+    private final List<String> variables;
+    private final Node root;
+
+    private Expression(String source, List<String> variables, Node root) {
+        this.source = source;
+        this.variables = Collections.unmodifiableList(variables);
+        this.root = root;
+    }
+
+    /**
+     * Compiles a formula, numbering its variables in order of first appearance.
+     * @param source
+     * @return Expression
+     * @throws IllegalArgumentException if the formula is malformed
+     */
+    public static Expression compile(String source) {
+        return compile(source, (String[]) null);
+    }
+
+    /**
+     * Compiles a formula whose variables are given in order.
+     * @param source
+     * @param variables   the position of each variable in the value arrays
+     * @return Expression
+     * @throws IllegalArgumentException if the formula is malformed or uses another variable
+     */
+    public static Expression compile(String source, String... variables) {
+        Parser p = new Parser(source, variables == null ? null : Arrays.asList(variables));
+        Term t = p.expression();
+        if (p.pos < source.length()) throw p.error("Unexpected '" + source.charAt(p.pos) + "'");
+        return new Expression(source, p.names, t.node());
+    }
+
+    /**
+     * Evaluates the formula.
+     * @param values   one value per variable, in the order of {@link #getVariables()}
+     * @return int
+     */
+    public int evaluate(int... values) {
+        if (values.length < variables.size()) {
+            throw new IllegalArgumentException("Expected " + variables.size() + " values, got " + values.length);
+        }
+        return root.eval(values);
+    }
+
+    /**
+     * Evaluates the formula for every row of a set of columns.
+     * @param columns   one column per variable, in the order of {@link #getVariables()}
+     * @param results   receives one result per row
+     */
+    public void evaluateAll(int[][] columns, int[] results) {
+        if (columns.length < variables.size()) {
+            throw new IllegalArgumentException("Expected " + variables.size() + " columns, got " + columns.length);
+        }
+        for (int v = 0; v < variables.size(); v++) {
+            if (columns[v].length < results.length) throw new IllegalArgumentException("Column " + v + " is too short");
+        }
+        Node node = root;
+        int[] row = new int[variables.size()];
+        for (int r = 0; r < results.length; r++) {
+            for (int v = 0; v < row.length; v++) row[v] = columns[v][r];
+            results[r] = node.eval(row);
+        }
+    }
+
+    public List<String> getVariables() { return variables; }
+
+    public String toString() { return source; }
+
+    private static int factorial(int n) {
+        if (n < 0) throw new IllegalArgumentException("Negative input");
+        return n < FACTORIALS.length ? FACTORIALS[n] : 0;
+    }
+
+    private static int divide(int a, int b) {
+        if (b == 0) throw new ArithmeticException("Cannot divide by zero");
+        return a / b;
+    }
+
+    /** A parsed subformula: a constant, a single variable or a compiled node. */
+    private static final class Term {
+        final Node node;
+        final int var;
+        final int value;
+
+        private Term(Node node, int var, int value) {
+            this.node = node;
+            this.var = var;
+            this.value = value;
+        }
+
+        static Term constant(int value) { return new Term(null, -1, value); }
+        static Term variable(int var) { return new Term(null, var, 0); }
+        static Term of(Node node) { return new Term(node, -1, 0); }
+
+        boolean isConstant() { return node == null && var < 0; }
+
+        Node node() {
+            if (node != null) return node;
+            int i = var, c = value;
+            return var >= 0 ? v -> v[i] : v -> c;
+        }
+    }
+
+    /** Recursive-descent parser producing compiled terms. */
+    private static final class Parser {
+        final String src;
+        final List<String> names;
+        final boolean fixed;
+        int pos;
+
+        Parser(String src, List<String> fixedNames) {
+            this.src = src;
+            this.fixed = fixedNames != null;
+            this.names = fixed ? new ArrayList<>(fixedNames) : new ArrayList<>();
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " in \"" + src + "\"");
+        }
+
+        char peek() {
+            while (pos < src.length() && Character.isWhitespace(src.charAt(pos))) pos++;
+            return pos < src.length() ? src.charAt(pos) : '\0';
+        }
+
+        Term expression() {
+            Term t = term();
+            for (char c = peek(); c == '+' || c == '-'; c = peek()) {
+                pos++;
+                t = binary(c, t, term());
+            }
+            return t;
+        }
+
+        Term term() {
+            Term t = unary();
+            for (char c = peek(); c == '*' || c == '/'; c = peek()) {
+                pos++;
+                t = binary(c, t, unary());
+            }
+            return t;
+        }
+
+        Term unary() {
+            if (peek() == '-') {
+                pos++;
+                Term t = unary();
+                if (t.isConstant()) return Term.constant(-t.value);
+                Node n = t.node();
+                return Term.of(v -> -n.eval(v));
+            }
+            Term t = primary();
+            while (peek() == '!') {
+                pos++;
+                if (t.isConstant()) {
+                    t = Term.constant(factorial(t.value));
+                } else {
+                    Node n = t.node();
+                    t = Term.of(v -> factorial(n.eval(v)));
+                }
+            }
+            return t;
+        }
+
+        Term primary() {
+            char c = peek();
+            if (c == '(') {
+                pos++;
+                Term t = expression();
+                if (peek() != ')') throw error("Expected ')'");
+                pos++;
+                return t;
+            }
+            int start = pos;
+            if (Character.isDigit(c)) {
+                while (pos < src.length() && Character.isDigit(src.charAt(pos))) pos++;
+                try {
+                    return Term.constant(Integer.parseInt(src.substring(start, pos)));
+                } catch (NumberFormatException e) {
+                    pos = start;
+                    throw error("Number too large");
+                }
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                while (pos < src.length() && Character.isJavaIdentifierPart(src.charAt(pos))) pos++;
+                String name = src.substring(start, pos);
+                int i = names.indexOf(name);
+                if (i < 0) {
+                    if (fixed) {
+                        pos = start;
+                        throw error("Unknown variable '" + name + "'");
+                    }
+                    i = names.size();
+                    names.add(name);
+                }
+                return Term.variable(i);
+            }
+            throw error(c == '\0' ? "Unexpected end of formula" : "Unexpected '" + c + "'");
+        }
+
+        Term binary(char op, Term l, Term r) {
+            if (l.isConstant() && r.isConstant()) {
+                int a = l.value, b = r.value;
+                switch (op) {
+                    case '+': return Term.constant(a + b);
+                    case '-': return Term.constant(a - b);
+                    case '*': return Term.constant(a * b);
+                    default:
+                        if (b == 0) throw error("Division by zero");
+                        return Term.constant(a / b);
+                }
+            }
+            // Leaf operands are read inline rather than through another node
+            if (l.var >= 0 && r.var >= 0) {
+                int i = l.var, j = r.var;
+                switch (op) {
+                    case '+': return Term.of(v -> v[i] + v[j]);
+                    case '-': return Term.of(v -> v[i] - v[j]);
+                    case '*': return Term.of(v -> v[i] * v[j]);
+                    default: return Term.of(v -> divide(v[i], v[j]));
+                }
+            }
+            if (r.isConstant()) {
+                Node a = l.node();
+                int b = r.value;
+                switch (op) {
+                    case '+': return Term.of(v -> a.eval(v) + b);
+                    case '-': return Term.of(v -> a.eval(v) - b);
+                    case '*': return Term.of(v -> a.eval(v) * b);
+                    default:
+                        if (b == 0) throw error("Division by zero");
+                        return Term.of(v -> a.eval(v) / b);
+                }
+            }
+            Node a = l.node(), b = r.node();
+            switch (op) {
+                case '+': return Term.of(v -> a.eval(v) + b.eval(v));
+                case '-': return Term.of(v -> a.eval(v) - b.eval(v));
+                case '*': return Term.of(v -> a.eval(v) * b.eval(v));
+                default: return Term.of(v -> divide(a.eval(v), b.eval(v)));
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package main.najah.code;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps products ordered by {@link Product#getFinalPrice()} so price-range
+ * and cheapest/most-expensive queries do not have to look at every product.
+ * <p>
+ * Products are held in a treap, a randomly balanced binary search tree, whose
+ * nodes also count the products below them. Counting the products in a price
+ * range therefore takes logarithmic time, and listing them takes logarithmic
+ * time plus the number listed. Adding a product registers a listener with it,
+ * so each {@link Product#applyDiscount(double)} moves the product to its new
+ * place. Products with the same final price are listed in the order they were
+ * added.
+ * <p>
+ * Queries share a read lock and updates take a write lock, so any number of
+ * queries run together. A product changed while it is not in an index, or in
+ * a way that does not go through {@code applyDiscount}, can be re-placed with
+ * {@link #update(Product)}.
+ */
+public class FinalPriceIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Product, Node> nodes = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private final Consumer<Product> listener = this::update;
+    private Node root;
+    private long nextSeq;
+
+    private static final class Node {
+        final Product product;
+        final long seq;
+        final int priority;
+        double key;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(Product product, long seq, int priority) {
+            this.product = product;
+            this.seq = seq;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Adds a product and follows its discounts from now on.
+     * @param p
+     * @return true if the product was not in the index yet
+     */
+    public boolean add(Product p) {
+        lock.writeLock().lock();
+        try {
+            if (nodes.containsKey(p)) return false;
+            Node n = new Node(p, nextSeq++, random.nextInt());
+            n.key = p.getFinalPrice();
+            nodes.put(p, n);
+            root = insert(root, n);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        p.addListener(listener);
+        // A discount applied before the listener was in place is picked up here
+        update(p);
+        return true;
+    }
+
+    /**
+     * Removes a product and stops following its discounts.
+     * @param p
+     * @return true if the product was in the index
+     */
+    public boolean remove(Product p) {
+        lock.writeLock().lock();
+        try {
+            Node n = nodes.remove(p);
+            if (n == null) return false;
+            root = delete(root, n);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        p.removeListener(listener);
+        return true;
+    }
+
+    /**
+     * Moves a product to the place of its current final price.
+     * @param p
+     */
+    public void update(Product p) {
+        lock.writeLock().lock();
+        try {
+            // Read under the lock, so the last update to get it sees the latest price
+            double key = p.getFinalPrice();
+            Node n = nodes.get(p);
+            if (n == null || Double.compare(n.key, key) == 0) return;
+            root = delete(root, n);
+            n.key = key;
+            n.left = n.right = null;
+            n.size = 1;
+            root = insert(root, n);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the products whose final price is between from and to, inclusive.
+     * @param from
+     * @param to
+     * @return int
+     */
+    public int countInRange(double from, double to) {
+        if (!(from <= to)) return 0;
+        lock.readLock().lock();
+        try {
+            return countBelow(to, true) - countBelow(from, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the products whose final price is between from and to,
+     * inclusive, cheapest first.
+     * @param from
+     * @param to
+     * @return List of Product
+     */
+    public List<Product> getInRange(double from, double to) {
+        List<Product> found = new ArrayList<>();
+        if (!(from <= to)) return found;
+        lock.readLock().lock();
+        try {
+            collect(root, from, to, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    /**
+     * Returns up to n products with the lowest final prices, cheapest first.
+     * @param n
+     * @return List of Product
+     */
+    public List<Product> getCheapest(int n) {
+        List<Product> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            ascending(root, n, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    /**
+     * Returns up to n products with the highest final prices, most expensive first.
+     * @param n
+     * @return List of Product
+     */
+    public List<Product> getMostExpensive(int n) {
+        List<Product> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            descending(root, n, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static Node fix(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        return n;
+    }
+
+    private static boolean before(Node a, Node b) {
+        int c = Double.compare(a.key, b.key);
+        return c < 0 || (c == 0 && a.seq < b.seq);
+    }
+
+    private static Node insert(Node t, Node n) {
+        if (t == null) return n;
+        if (before(n, t)) {
+            t.left = insert(t.left, n);
+            if (t.left.priority > t.priority) {
+                Node l = t.left;
+                t.left = l.right;
+                l.right = fix(t);
+                return fix(l);
+            }
+        } else {
+            t.right = insert(t.right, n);
+            if (t.right.priority > t.priority) {
+                Node r = t.right;
+                t.right = r.left;
+                r.left = fix(t);
+                return fix(r);
+            }
+        }
+        return fix(t);
+    }
+
+    private static Node delete(Node t, Node n) {
+        if (t == n) return merge(t.left, t.right);
+        if (before(n, t)) {
+            t.left = delete(t.left, n);
+        } else {
+            t.right = delete(t.right, n);
+        }
+        return fix(t);
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            return fix(a);
+        }
+        b.left = merge(a, b.left);
+        return fix(b);
+    }
+
+    /** Counts the keys below the price, or at or below it when inclusive. */
+    private int countBelow(double price, boolean inclusive) {
+        int count = 0;
+        Node t = root;
+        while (t != null) {
+            int c = Double.compare(t.key, price);
+            if (c < 0 || (inclusive && c == 0)) {
+                count += size(t.left) + 1;
+                t = t.right;
+            } else {
+                t = t.left;
+            }
+        }
+        return count;
+    }
+
+    private static void collect(Node t, double from, double to, List<Product> found) {
+        if (t == null) return;
+        if (t.key >= from) collect(t.left, from, to, found);
+        if (t.key >= from && t.key <= to) found.add(t.product);
+        if (t.key <= to) collect(t.right, from, to, found);
+    }
+
+    private static void ascending(Node t, int n, List<Product> found) {
+        if (t == null || found.size() >= n) return;
+        ascending(t.left, n, found);
+        if (found.size() < n) found.add(t.product);
+        ascending(t.right, n, found);
+    }
+
+    private static void descending(Node t, int n, List<Product> found) {
+        if (t == null || found.size() >= n) return;
+        descending(t.right, n, found);
+        if (found.size() < n) found.add(t.product);
+        descending(t.left, n, found);
+    }
+}
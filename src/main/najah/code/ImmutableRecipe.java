@@ -0,0 +1,196 @@
+package main.najah.code;
+
+/**
+ * Read-only recipe, validated once when built.
+ * <p>
+ * Unlike {@link Recipe}, equality covers every field and the hash code is
+ * computed once in the constructor. Instances never change, so they can be
+ * shared between threads and used as keys without locking.
+ */
+public final class ImmutableRecipe {
+    private final String name;
+    private final int price;
+    private final int amtCoffee;
+    private final int amtMilk;
+    private final int amtSugar;
+    private final int amtChocolate;
+    private final int hash;
+
+    private ImmutableRecipe(Builder b) {
+        this.name = b.name;
+        this.price = b.price;
+        this.amtCoffee = b.amtCoffee;
+        this.amtMilk = b.amtMilk;
+        this.amtSugar = b.amtSugar;
+        this.amtChocolate = b.amtChocolate;
+        this.hash = hash(name, price, amtCoffee, amtMilk, amtSugar, amtChocolate);
+    }
+
+    /**
+     * Structural hash of a recipe's values, as returned by {@link #hashCode()}.
+     */
+    static int hash(String name, int price, int amtCoffee, int amtMilk, int amtSugar, int amtChocolate) {
+        int h = name.hashCode();
+        h = 31 * h + price;
+        h = 31 * h + amtCoffee;
+        h = 31 * h + amtMilk;
+        h = 31 * h + amtSugar;
+        h = 31 * h + amtChocolate;
+        return h;
+    }
+
+    /**
+     * Returns true if this recipe holds exactly the given values.
+     */
+    boolean hasValues(String name, int price, int amtCoffee, int amtMilk, int amtSugar, int amtChocolate) {
+        return this.price == price
+            && this.amtCoffee == amtCoffee
+            && this.amtMilk == amtMilk
+            && this.amtSugar == amtSugar
+            && this.amtChocolate == amtChocolate
+            && this.name.equals(name);
+    }
+
+    /**
+     * Returns a builder for a recipe with no name and all amounts 0.
+     * @return Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns an immutable copy of the recipe's current values.
+     * @param r
+     * @return ImmutableRecipe
+     */
+    public static ImmutableRecipe from(Recipe r) {
+        Builder b = new Builder();
+        b.name = r.getName();
+        b.price = r.getPrice();
+        b.amtCoffee = r.getAmtCoffee();
+        b.amtMilk = r.getAmtMilk();
+        b.amtSugar = r.getAmtSugar();
+        b.amtChocolate = r.getAmtChocolate();
+        return new ImmutableRecipe(b);
+    }
+
+    /**
+     * Returns a builder holding this recipe's values, to derive a changed copy.
+     * @return Builder
+     */
+    public Builder toBuilder() {
+        Builder b = new Builder();
+        b.name = name;
+        b.price = price;
+        b.amtCoffee = amtCoffee;
+        b.amtMilk = amtMilk;
+        b.amtSugar = amtSugar;
+        b.amtChocolate = amtChocolate;
+        return b;
+    }
+
+    /**
+     * Returns a new mutable Recipe with this recipe's values, for use with
+     * {@link RecipeBook}, which may modify the recipes it is given.
+     * @return Recipe
+     */
+    public Recipe toRecipe() {
+        Recipe r = new Recipe();
+        r.setName(name);
+        r.setValues(price, amtCoffee, amtMilk, amtSugar, amtChocolate);
+        return r;
+    }
+
+    public String getName() { return name; }
+    public int getPrice() { return price; }
+    public int getAmtCoffee() { return amtCoffee; }
+    public int getAmtMilk() { return amtMilk; }
+    public int getAmtSugar() { return amtSugar; }
+    public int getAmtChocolate() { return amtChocolate; }
+
+    /**
+     * Returns the name of the recipe.
+     * @return String
+     */
+    public String toString() {
+        return name;
+    }
+
+    public int hashCode() {
+        return hash;
+    }
+
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof ImmutableRecipe))
+            return false;
+        ImmutableRecipe other = (ImmutableRecipe) obj;
+        return hash == other.hash
+            && hasValues(other.name, other.price, other.amtCoffee, other.amtMilk, other.amtSugar, other.amtChocolate);
+    }
+
+    /**
+     * Collects the values of an {@link ImmutableRecipe}. Values are checked by
+     * {@link #build()}, with the same rules and messages as the Recipe setters.
+     */
+    public static final class Builder {
+        private String name = "";
+        private int price;
+        private int amtCoffee;
+        private int amtMilk;
+        private int amtSugar;
+        private int amtChocolate;
+
+        private Builder() {
+        }
+
+        /** A null name is ignored, as in {@link Recipe#setName(String)}. */
+        public Builder name(String name) {
+            if (name != null) this.name = name;
+            return this;
+        }
+
+        public Builder price(int price) {
+            this.price = price;
+            return this;
+        }
+
+        public Builder amtCoffee(int amtCoffee) {
+            this.amtCoffee = amtCoffee;
+            return this;
+        }
+
+        public Builder amtMilk(int amtMilk) {
+            this.amtMilk = amtMilk;
+            return this;
+        }
+
+        public Builder amtSugar(int amtSugar) {
+            this.amtSugar = amtSugar;
+            return this;
+        }
+
+        public Builder amtChocolate(int amtChocolate) {
+            this.amtChocolate = amtChocolate;
+            return this;
+        }
+
+        /**
+         * Validates the values and returns the recipe.
+         * @return ImmutableRecipe
+         * @throws RecipeException for the first negative value, reported in
+         *         {@link RecipeException#getDefaultMode() the default mode}
+         */
+        public ImmutableRecipe build() throws RecipeException {
+            RecipeException.Mode mode = RecipeException.getDefaultMode();
+            if (price < 0) throw RecipeException.of(RecipeException.Ingredient.PRICE, mode);
+            if (amtCoffee < 0) throw RecipeException.of(RecipeException.Ingredient.COFFEE, mode);
+            if (amtMilk < 0) throw RecipeException.of(RecipeException.Ingredient.MILK, mode);
+            if (amtSugar < 0) throw RecipeException.of(RecipeException.Ingredient.SUGAR, mode);
+            if (amtChocolate < 0) throw RecipeException.of(RecipeException.Ingredient.CHOCOLATE, mode);
+            return new ImmutableRecipe(this);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package main.najah.code;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Factorials, combinations and permutations modulo a prime.
+ * <p>
+ * Factorials and their modular inverses are kept in tables, so once a table
+ * reaches n every query up to n takes constant time. The tables start small
+ * and double when a query needs more, up to {@code maxTableSize} entries;
+ * they are published as immutable snapshots, so queries never lock and
+ * growing the tables does not disturb concurrent readers. Arguments of p and
+ * above need no table entries beyond p: {@code n!} is then 0 and combinations
+ * use Lucas' theorem.
+ * <p>
+ * Unlike {@link Calculator#factorial(int)}, nothing overflows: every result
+ * is exact modulo p. Negative arguments throw {@link IllegalArgumentException}
+ * as in {@code Calculator}; choosing more items than there are gives 0.
+ */
+public class ModularCombinatorics {
+
+    /** 10^9 + 7, the usual prime for counting problems */
+    public static final int DEFAULT_PRIME = 1_000_000_007;
+
+    private static final int INITIAL_SIZE = 1024;
+
+    private final long p;
+    private final int maxTableSize;
+    private volatile Tables tables;
+
+    /** Immutable factorial tables; every entry below the length is final. */
+    private static final class Tables {
+        final long[] fact;
+        final long[] invFact;
+
+        Tables(long[] fact, long[] invFact) {
+            this.fact = fact;
+            this.invFact = invFact;
+        }
+    }
+
+    /**
+     * Creates tables modulo 10^9 + 7 that grow up to 2^24 entries.
+     */
+    public ModularCombinatorics() {
+        this(DEFAULT_PRIME, 1 << 24);
+    }
+
+    /**
+     * @param prime          the modulus; must be prime
+     * @param maxTableSize   largest number of factorials kept; arguments from this up to the prime are rejected
+     */
+    public ModularCombinatorics(int prime, int maxTableSize) {
+        if (prime < 2 || !BigInteger.valueOf(prime).isProbablePrime(50)) {
+            throw new IllegalArgumentException("Modulus must be prime");
+        }
+        if (maxTableSize <= 0) throw new IllegalArgumentException("Table size must be positive");
+        this.p = prime;
+        this.maxTableSize = (int) Math.min(maxTableSize, p);
+        this.tables = build(new Tables(new long[0], new long[0]), Math.min(INITIAL_SIZE, this.maxTableSize));
+    }
+
+    public int getModulus() { return (int) p; }
+
+    /** Number of factorials currently in the tables. */
+    public int getTableSize() { return tables.fact.length; }
+
+    /**
+     * Returns n! mod p.
+     * @param n
+     * @return long
+     */
+    public long factorial(long n) {
+        checkNonNegative(n);
+        if (n >= p) return 0;
+        return tablesFor(n).fact[(int) n];
+    }
+
+    /**
+     * Returns the number of ways to choose r of n items, mod p.
+     * @param n
+     * @param r
+     * @return long
+     */
+    public long nCr(long n, long r) {
+        checkNonNegative(n);
+        checkNonNegative(r);
+        if (r > n) return 0;
+        if (n < p) return smallNCr((int) n, (int) r);
+        // Lucas: the product of the combinations of the base-p digits
+        long result = 1;
+        while (n > 0 && result != 0) {
+            int ni = (int) (n % p), ri = (int) (r % p);
+            if (ri > ni) return 0;
+            result = result * smallNCr(ni, ri) % p;
+            n /= p;
+            r /= p;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of ordered arrangements of r of n items, mod p.
+     * @param n
+     * @param r
+     * @return long
+     */
+    public long nPr(long n, long r) {
+        checkNonNegative(n);
+        checkNonNegative(r);
+        if (r > n) return 0;
+        if (r == 0) return 1;
+        // n * (n-1) * ... * (n-r+1) is 0 if it passes a multiple of p
+        if (n / p != (n - r) / p) return 0;
+        int hi = (int) (n % p), lo = (int) ((n - r) % p);
+        Tables t = tablesFor(hi);
+        return t.fact[hi] * t.invFact[lo] % p;
+    }
+
+    private long smallNCr(int n, int r) {
+        Tables t = tablesFor(n);
+        return t.fact[n] * t.invFact[r] % p * t.invFact[n - r] % p;
+    }
+
+    private static void checkNonNegative(long n) {
+        if (n < 0) throw new IllegalArgumentException("Negative input");
+    }
+
+    /** Returns tables holding index n, growing them if needed. */
+    private Tables tablesFor(long n) {
+        Tables t = tables;
+        if (n < t.fact.length) return t;
+        if (n >= maxTableSize) {
+            throw new IllegalArgumentException("Argument " + n + " exceeds the table size " + maxTableSize);
+        }
+        synchronized (this) {
+            t = tables;
+            if (n >= t.fact.length) {
+                long size = Math.max(n + 1, 2L * t.fact.length);
+                t = build(t, (int) Math.min(size, maxTableSize));
+                tables = t;
+            }
+            return t;
+        }
+    }
+
+    /** Returns a copy of the tables extended to the given size. */
+    private Tables build(Tables old, int size) {
+        int from = old.fact.length;
+        long[] fact = Arrays.copyOf(old.fact, size);
+        long[] invFact = Arrays.copyOf(old.invFact, size);
+        for (int i = from; i < size; i++) fact[i] = i == 0 ? 1 : fact[i - 1] * i % p;
+        // One modular inverse for the largest entry, then multiply down
+        invFact[size - 1] = pow(fact[size - 1], p - 2);
+        for (int i = size - 1; i > from; i--) invFact[i - 1] = invFact[i] * i % p;
+        return new Tables(fact, invFact);
+    }
+
+    private long pow(long base, long exp) {
+        long result = 1;
+        base %= p;
+        while (exp > 0) {
+            if ((exp & 1) != 0) result = result * base % p;
+            base = base * base % p;
+            exp >>= 1;
+        }
+        return result;
+    }
+}
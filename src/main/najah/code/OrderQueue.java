@@ -0,0 +1,104 @@
+package main.najah.code;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free queue of {@link BrewOrder}s for many producers and a single
+ * consumer.
+ * <p>
+ * A ring buffer in which every cell carries a sequence number telling
+ * producers whether it is free and the consumer whether it has been filled.
+ * Producers claim cells with one compare-and-set on the tail; the consumer
+ * owns the head and never contends. When the queue is full {@link #offer}
+ * returns false instead of blocking.
+ */
+public class OrderQueue {
+
+    private final int mask;
+    private final AtomicReferenceArray<BrewOrder> cells;
+    private final AtomicLongArray sequence;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param capacity   rounded up to a power of two
+     */
+    public OrderQueue(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("Invalid capacity");
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.cells = new AtomicReferenceArray<>(size);
+        this.sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequence.set(i, i);
+    }
+
+    /**
+     * Queues an order, stamping it with the current time. Safe to call from
+     * any number of threads.
+     * @param order
+     * @return boolean false if the queue is full
+     */
+    public boolean offer(BrewOrder order) {
+        for (;;) {
+            long t = tail.get();
+            int cell = (int) t & mask;
+            long seq = sequence.get(cell);
+            if (seq == t) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    order.setEnqueuedAt(System.nanoTime());
+                    cells.lazySet(cell, order);
+                    sequence.set(cell, t + 1);
+                    return true;
+                }
+            } else if (seq < t) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest order. Must only be called by the consumer thread.
+     * @return BrewOrder, or null if the queue is empty
+     */
+    public BrewOrder poll() {
+        long h = head;
+        int cell = (int) h & mask;
+        if (sequence.get(cell) != h + 1) return null;
+        BrewOrder o = cells.get(cell);
+        cells.lazySet(cell, null);
+        sequence.set(cell, h + mask + 1);
+        head = h + 1;
+        return o;
+    }
+
+    /**
+     * Moves up to max orders into the array. Must only be called by the
+     * consumer thread.
+     * @param into
+     * @param max
+     * @return int number of orders moved
+     */
+    public int drain(BrewOrder[] into, int max) {
+        int n = 0;
+        BrewOrder o;
+        while (n < max && (o = poll()) != null) {
+            into[n++] = o;
+        }
+        return n;
+    }
+
+    /**
+     * Returns the approximate number of queued orders.
+     * @return int
+     */
+    public int size() {
+        long s = tail.get() - head;
+        return (int) Math.max(0, Math.min(s, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
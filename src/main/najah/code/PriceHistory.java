@@ -0,0 +1,211 @@
+package main.najah.code;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.LongSupplier;
+
+/**
+ * Append-only record of every price and discount a product has had.
+ * <p>
+ * Changes are packed into blocks of up to {@value #BLOCK} entries. The first
+ * change of a block is kept in plain index arrays; every later one is stored
+ * as three variable-length integers: the time since the previous change and
+ * the bits that changed in the price and in the discount, bit-reversed so that
+ * an unchanged value takes one byte and a round value only a few. Memory use
+ * is therefore a few bytes per change with no object per change, and a lookup
+ * binary-searches the block index and decodes at most one block.
+ * <p>
+ * Times are milliseconds and never go backwards: a change recorded with an
+ * earlier time than the last one is stored at the last one's time. Safe for
+ * concurrent use.
+ */
+public class PriceHistory {
+
+    private static final int BLOCK = 64;
+
+    private final LongSupplier clock;
+
+    private byte[] data = new byte[64];
+    private int length;
+    private long[] blockTime = new long[4];
+    private double[] blockPrice = new double[4];
+    private double[] blockDiscount = new double[4];
+    private int[] blockOffset = new int[4];
+    private int blocks;
+    private long size;
+
+    private long lastTime;
+    private long lastPrice;
+    private long lastDiscount;
+
+    /** Receives the changes of a history in order. */
+    public interface Visitor {
+        void change(long timeMillis, double price, double discount);
+    }
+
+    /**
+     * Creates a history stamping changes with the system clock.
+     */
+    public PriceHistory() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock   current time in milliseconds
+     */
+    public PriceHistory(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Records a change at the current time.
+     * @param price
+     * @param discount
+     */
+    public void record(double price, double discount) {
+        record(clock.getAsLong(), price, discount);
+    }
+
+    /**
+     * Records a change.
+     * @param timeMillis
+     * @param price
+     * @param discount
+     */
+    public synchronized void record(long timeMillis, double price, double discount) {
+        long p = Double.doubleToLongBits(price);
+        long d = Double.doubleToLongBits(discount);
+        if (size > 0) timeMillis = Math.max(timeMillis, lastTime);
+        if (size % BLOCK == 0) {
+            if (blocks == blockTime.length) {
+                blockTime = Arrays.copyOf(blockTime, blocks * 2);
+                blockPrice = Arrays.copyOf(blockPrice, blocks * 2);
+                blockDiscount = Arrays.copyOf(blockDiscount, blocks * 2);
+                blockOffset = Arrays.copyOf(blockOffset, blocks * 2);
+            }
+            blockTime[blocks] = timeMillis;
+            blockPrice[blocks] = price;
+            blockDiscount[blocks] = discount;
+            blockOffset[blocks] = length;
+            blocks++;
+        } else {
+            if (length + 30 > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, length + 30));
+            length = putVarLong(timeMillis - lastTime, length);
+            length = putVarLong(Long.reverse(p ^ lastPrice), length);
+            length = putVarLong(Long.reverse(d ^ lastDiscount), length);
+        }
+        lastTime = timeMillis;
+        lastPrice = p;
+        lastDiscount = d;
+        size++;
+    }
+
+    private int putVarLong(long v, int at) {
+        while ((v & ~0x7FL) != 0) {
+            data[at++] = (byte) (v | 0x80);
+            v >>>= 7;
+        }
+        data[at++] = (byte) v;
+        return at;
+    }
+
+    /**
+     * Returns the price in effect at a time.
+     * @param timeMillis
+     * @return double
+     * @throws NoSuchElementException if nothing was recorded at or before that time
+     */
+    public double getPriceAt(long timeMillis) {
+        return Double.longBitsToDouble(find(timeMillis)[0]);
+    }
+
+    /**
+     * Returns the discount percentage in effect at a time.
+     * @param timeMillis
+     * @return double
+     * @throws NoSuchElementException if nothing was recorded at or before that time
+     */
+    public double getDiscountAt(long timeMillis) {
+        return Double.longBitsToDouble(find(timeMillis)[1]);
+    }
+
+    /**
+     * Returns the discounted price in effect at a time.
+     * @param timeMillis
+     * @return double
+     * @throws NoSuchElementException if nothing was recorded at or before that time
+     */
+    public double getFinalPriceAt(long timeMillis) {
+        long[] found = find(timeMillis);
+        return Double.longBitsToDouble(found[0]) * (1 - Double.longBitsToDouble(found[1]) / 100);
+    }
+
+    /** Returns the price and discount bits of the last change at or before a time. */
+    private synchronized long[] find(long timeMillis) {
+        int lo = 0, hi = blocks - 1, b = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (blockTime[mid] <= timeMillis) {
+                b = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (b < 0) throw new NoSuchElementException("No price recorded at or before " + timeMillis);
+
+        long[] state = {Double.doubleToLongBits(blockPrice[b]), Double.doubleToLongBits(blockDiscount[b]),
+            blockTime[b]};
+        int end = b + 1 < blocks ? blockOffset[b + 1] : length;
+        int[] at = {blockOffset[b]};
+        while (at[0] < end) {
+            long time = state[2] + getVarLong(at);
+            if (time > timeMillis) break;
+            state[0] ^= Long.reverse(getVarLong(at));
+            state[1] ^= Long.reverse(getVarLong(at));
+            state[2] = time;
+        }
+        return state;
+    }
+
+    private long getVarLong(int[] at) {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[at[0]++];
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return v;
+    }
+
+    /**
+     * Passes every change to the visitor, oldest first.
+     * @param visitor
+     */
+    public synchronized void forEach(Visitor visitor) {
+        int[] at = {0};
+        for (int b = 0; b < blocks; b++) {
+            long time = blockTime[b];
+            long p = Double.doubleToLongBits(blockPrice[b]);
+            long d = Double.doubleToLongBits(blockDiscount[b]);
+            visitor.change(time, blockPrice[b], blockDiscount[b]);
+            int end = b + 1 < blocks ? blockOffset[b + 1] : length;
+            while (at[0] < end) {
+                time += getVarLong(at);
+                p ^= Long.reverse(getVarLong(at));
+                d ^= Long.reverse(getVarLong(at));
+                visitor.change(time, Double.longBitsToDouble(p), Double.longBitsToDouble(d));
+            }
+        }
+    }
+
+    /** Number of changes recorded. */
+    public synchronized long size() { return size; }
+
+    /** Bytes used by the encoded changes and the block index, excluding spare capacity. */
+    public synchronized long getEncodedBytes() {
+        return length + (long) blocks * (Long.BYTES + 2 * Double.BYTES + Integer.BYTES);
+    }
+}
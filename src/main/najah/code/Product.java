@@ -1,9 +1,20 @@
 package main.najah.code;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import main.najah.metrics.Metric;
+import main.najah.metrics.Metrics;
+
 public class Product {
+    private static final Metric APPLY_DISCOUNT = Metrics.metric("Product.applyDiscount");
+
     private String name;
     private double price;
     private double discount = 0;
+    private PriceHistory history;
+    private volatile List<Consumer<Product>> listeners;
 
     public Product(String name, double price) {
         if (price < 0) throw new IllegalArgumentException("Price must be non-negative");
@@ -12,12 +23,48 @@ public class Product {
     }
 
     public void applyDiscount(double discountPercentage) {
+        long start = APPLY_DISCOUNT.start();
         if (discountPercentage < 0 || discountPercentage > 50) {
+            APPLY_DISCOUNT.fail(start);
             throw new IllegalArgumentException("Invalid discount");
         }
+        storeDiscount(discountPercentage);
+        if (history != null) history.record(getPrice(), discountPercentage);
+        List<Consumer<Product>> l = listeners;
+        if (l != null) for (Consumer<Product> listener : l) listener.accept(this);
+        APPLY_DISCOUNT.stop(start);
+    }
+
+    /** Stores a discount that has already been validated. */
+    protected void storeDiscount(double discountPercentage) {
         this.discount = discountPercentage;
     }
 
+    /**
+     * Calls the listener after every discount applied to this product.
+     * @param listener
+     */
+    public synchronized void addListener(Consumer<Product> listener) {
+        if (listeners == null) listeners = new CopyOnWriteArrayList<>();
+        listeners.add(listener);
+    }
+
+    public synchronized void removeListener(Consumer<Product> listener) {
+        if (listeners != null) listeners.remove(listener);
+    }
+
+    /**
+     * Starts recording every discount applied to this product, beginning with
+     * the current price and discount; null stops recording.
+     * @param history
+     */
+    public void setHistory(PriceHistory history) {
+        this.history = history;
+        if (history != null) history.record(getPrice(), getDiscount());
+    }
+
+    public PriceHistory getHistory() { return history; }
+
     public double getFinalPrice() {
         return price * (1 - discount / 100);
     }
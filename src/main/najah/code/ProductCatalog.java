@@ -0,0 +1,224 @@
+package main.najah.code;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * A product catalogue stored in a binary file and read through a memory
+ * mapping, without building a {@link Product} per entry.
+ * <p>
+ * Opening a catalogue maps the file and checks its header only, so it takes
+ * the same time for ten products as for ten million, and the entries live in
+ * the page cache rather than on the heap. {@link #get(int)} returns a
+ * {@link View}, a {@code Product} that reads its name, price and discount
+ * from the mapping; a view can be moved to another entry with
+ * {@link View#moveTo(int)} to scan the whole catalogue with one object.
+ * <p>
+ * File layout, big-endian:
+ * <pre>
+ * header   int magic 'PCAT', int version, int count, int reserved
+ * entries  count x (double price, double discount, int name offset, int name length)
+ * names    UTF-8 bytes of every name, at the offsets given by the entries
+ * </pre>
+ * A catalogue is limited to 2 GB, the largest single mapping. Reads are safe
+ * from any number of threads; in a writable catalogue a discount written by
+ * one thread is not guaranteed to be seen at once by the others.
+ */
+public class ProductCatalog {
+
+    private static final int MAGIC = 0x50434154;
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int ENTRY = 24;
+    private static final int PRICE = 0;
+    private static final int DISCOUNT = 8;
+    private static final int NAME_OFFSET = 16;
+    private static final int NAME_LENGTH = 20;
+
+    private final ByteBuffer buf;
+    private final int size;
+
+    private ProductCatalog(ByteBuffer buf) throws IOException {
+        if (buf.capacity() < HEADER || buf.getInt(0) != MAGIC) throw new IOException("Not a product catalog");
+        if (buf.getInt(4) != VERSION) throw new IOException("Unsupported catalog version " + buf.getInt(4));
+        int count = buf.getInt(8);
+        if (count < 0 || HEADER + (long) count * ENTRY > buf.capacity()) throw new IOException("Truncated catalog");
+        this.buf = buf;
+        this.size = count;
+    }
+
+    /**
+     * Maps a catalogue read-only; {@code applyDiscount} on its views throws
+     * {@link ReadOnlyBufferException}.
+     * @param file
+     * @return ProductCatalog
+     */
+    public static ProductCatalog open(Path file) throws IOException {
+        return open(file, false);
+    }
+
+    /**
+     * Maps a catalogue.
+     * @param file
+     * @param writable   whether discounts applied to views are written back to the file
+     * @return ProductCatalog
+     */
+    public static ProductCatalog open(Path file, boolean writable) throws IOException {
+        try (FileChannel ch = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("Catalog larger than 2 GB");
+            // The mapping stays valid after the channel is closed
+            return new ProductCatalog(ch.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                0, ch.size()));
+        }
+    }
+
+    /**
+     * Wraps a catalogue already in memory, such as one produced by
+     * {@link #encode(Collection)}.
+     * @param data
+     * @return ProductCatalog
+     */
+    public static ProductCatalog wrap(ByteBuffer data) throws IOException {
+        return new ProductCatalog(data.duplicate().clear());
+    }
+
+    /**
+     * Writes products to a catalogue file, replacing it if it exists.
+     * @param file
+     * @param products
+     */
+    public static void write(Path file, Collection<? extends Product> products) throws IOException {
+        ByteBuffer data = encode(products);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) ch.write(data);
+        }
+    }
+
+    /**
+     * Encodes products in the catalogue format.
+     * @param products
+     * @return ByteBuffer positioned at the start of the catalogue
+     */
+    public static ByteBuffer encode(Collection<? extends Product> products) {
+        byte[][] names = new byte[products.size()][];
+        long length = HEADER + (long) names.length * ENTRY;
+        int i = 0;
+        for (Product p : products) {
+            names[i] = p.getName().getBytes(StandardCharsets.UTF_8);
+            length += names[i++].length;
+        }
+        if (length > Integer.MAX_VALUE) throw new IllegalArgumentException("Catalog larger than 2 GB");
+
+        ByteBuffer data = ByteBuffer.allocate((int) length);
+        data.putInt(MAGIC).putInt(VERSION).putInt(names.length).putInt(0);
+        int nameOffset = HEADER + names.length * ENTRY;
+        i = 0;
+        for (Product p : products) {
+            data.putDouble(p.getPrice()).putDouble(p.getDiscount()).putInt(nameOffset).putInt(names[i].length);
+            nameOffset += names[i++].length;
+        }
+        for (byte[] name : names) data.put(name);
+        return data.flip();
+    }
+
+    public int size() { return size; }
+
+    public boolean isWritable() { return !buf.isReadOnly(); }
+
+    /**
+     * Returns a view of one entry.
+     * @param index
+     * @return View
+     */
+    public View get(int index) {
+        return new View(this, checkIndex(index));
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        return index;
+    }
+
+    private int entry(int index) {
+        return HEADER + index * ENTRY;
+    }
+
+    private String name(int index) {
+        byte[] bytes = new byte[buf.getInt(entry(index) + NAME_LENGTH)];
+        buf.get(buf.getInt(entry(index) + NAME_OFFSET), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private double price(int index) {
+        return buf.getDouble(entry(index) + PRICE);
+    }
+
+    private double discount(int index) {
+        return buf.getDouble(entry(index) + DISCOUNT);
+    }
+
+    /**
+     * A {@code Product} backed by one catalogue entry. Its name is decoded on
+     * every call to {@link #getName()}; price and discount are read directly.
+     */
+    public static final class View extends Product {
+        private final ProductCatalog catalog;
+        private int index;
+
+        private View(ProductCatalog catalog, int index) {
+            super(null, 0);
+            this.catalog = catalog;
+            this.index = index;
+        }
+
+        /**
+         * Points this view at another entry.
+         * @param index
+         * @return this view
+         */
+        public View moveTo(int index) {
+            this.index = catalog.checkIndex(index);
+            return this;
+        }
+
+        public int getIndex() { return index; }
+
+        @Override
+        public void applyDiscount(double discountPercentage) {
+            if (catalog.buf.isReadOnly()) throw new ReadOnlyBufferException();
+            super.applyDiscount(discountPercentage);
+        }
+
+        @Override
+        protected void storeDiscount(double discountPercentage) {
+            catalog.buf.putDouble(catalog.entry(index) + DISCOUNT, discountPercentage);
+        }
+
+        @Override
+        public double getFinalPrice() {
+            return getPrice() * (1 - getDiscount() / 100);
+        }
+
+        @Override
+        public String getName() { return catalog.name(index); }
+
+        @Override
+        public double getPrice() { return catalog.price(index); }
+
+        @Override
+        public double getDiscount() { return catalog.discount(index); }
+
+        public String toString() {
+            return getName() + " " + getPrice() + " (" + getDiscount() + "% off)";
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package main.najah.code;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Starts and ends discount promotions on sets of products at scheduled times.
+ * <p>
+ * Promotions wait in a hierarchical timer wheel: five levels of 64 slots,
+ * each slot of a level covering a whole turn of the level below. A promotion
+ * is linked into the slot of its next start or end and moves to a lower level
+ * when its slot comes round, so scheduling and cancelling take constant time
+ * and a tick only looks at the promotions due in it. One wheel entry serves a
+ * whole product set, however large.
+ * <p>
+ * Time advances in ticks of {@code tickMillis}; a promotion starts or ends on
+ * the first tick at or after its time. All promotions due in a tick are
+ * applied together, ends before starts, while the scheduler's lock is held.
+ * <p>
+ * Promotions may overlap in any way. Each product gets the discount of its
+ * active promotion with the latest start, ties going to the one scheduled
+ * last, through {@link Product#applyDiscount(double)}; once none is active it
+ * gets back the discount it had before the first of them started. A product
+ * whose {@code applyDiscount} throws keeps its discount, the failure is
+ * counted in {@link #getFailures()}, and the promotion goes ahead for the
+ * other products.
+ * <p>
+ * Ticks are processed by {@link #advance()}, either called directly or by
+ * the thread started with {@link #start()}.
+ */
+public class PromotionScheduler implements AutoCloseable {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 5;
+    /** Bucket of promotions due at or before the current tick */
+    private static final int OVERDUE = LEVELS * SLOTS;
+    /** Bucket of promotions beyond the last level */
+    private static final int OVERFLOW = OVERDUE + 1;
+
+    private static final int PENDING = 0;
+    private static final int ACTIVE = 1;
+    private static final int ENDED = 2;
+    private static final int CANCELLED = 3;
+
+    private final long tickMillis;
+    private final LongSupplier clock;
+    private final long origin;
+    private final Promotion[] buckets = new Promotion[OVERFLOW + 1];
+    /** Number of promotions linked into each level, to skip empty turns */
+    private final int[] perLevel = new int[LEVELS];
+    private final List<Promotion> ending = new ArrayList<>();
+    private final List<Promotion> starting = new ArrayList<>();
+    private final Map<Product, Promoted> promoted = new HashMap<>();
+    private long currentTick;
+    private long nextSeq;
+    private int scheduled;
+    private long starts;
+    private long ends;
+    private long maxLagMillis;
+    private long failures;
+    private RuntimeException lastFailure;
+
+    private Thread ticker;
+    private volatile boolean running;
+
+    /** A scheduled promotion. */
+    public static final class Promotion {
+        private final Product[] products;
+        private final double discount;
+        private final long startTick;
+        private final long endTick;
+        private final long seq;
+        private volatile int state = PENDING;
+        private int bucket = -1;
+        private Promotion prev;
+        private Promotion next;
+
+        private Promotion(Product[] products, double discount, long startTick, long endTick, long seq) {
+            this.products = products;
+            this.discount = discount;
+            this.startTick = startTick;
+            this.endTick = endTick;
+            this.seq = seq;
+        }
+
+        /** Whether this promotion takes precedence over the other on a shared product. */
+        private boolean winsOver(Promotion other) {
+            return startTick != other.startTick ? startTick > other.startTick : seq > other.seq;
+        }
+
+        public double getDiscount() { return discount; }
+        public int getProductCount() { return products.length; }
+        public boolean isPending() { return state == PENDING; }
+        public boolean isActive() { return state == ACTIVE; }
+        public boolean isEnded() { return state == ENDED; }
+        public boolean isCancelled() { return state == CANCELLED; }
+    }
+
+    /** The active promotions on one product, lowest precedence first. */
+    private static final class Promoted {
+        /** Discount before any of the promotions started */
+        final double base;
+        final List<Promotion> active = new ArrayList<>(2);
+
+        Promoted(double base) {
+            this.base = base;
+        }
+    }
+
+    /**
+     * Creates a scheduler with one-second ticks on the system clock.
+     */
+    public PromotionScheduler() {
+        this(1000, System::currentTimeMillis);
+    }
+
+    /**
+     * @param tickMillis   length of one tick
+     * @param clock        current time in milliseconds
+     */
+    public PromotionScheduler(long tickMillis, LongSupplier clock) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("Tick must be positive");
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+    }
+
+    /**
+     * Schedules a discount on a set of products.
+     * @param products
+     * @param discountPercentage   between 0 and 50, as for {@link Product#applyDiscount(double)}
+     * @param startMillis          when the discount is applied
+     * @param endMillis            when the promotion stops applying, Long.MAX_VALUE for never
+     * @return Promotion
+     */
+    public synchronized Promotion schedule(Collection<? extends Product> products, double discountPercentage,
+            long startMillis, long endMillis) {
+        if (discountPercentage < 0 || discountPercentage > 50) throw new IllegalArgumentException("Invalid discount");
+        if (endMillis <= startMillis) throw new IllegalArgumentException("Promotion must end after it starts");
+        Promotion p = new Promotion(products.toArray(new Product[0]), discountPercentage, tickOf(startMillis),
+            endMillis == Long.MAX_VALUE ? Long.MAX_VALUE : tickOf(endMillis), nextSeq++);
+        insert(p, p.startTick);
+        scheduled++;
+        return p;
+    }
+
+    /**
+     * Cancels a promotion. One that has not started never will; one that has
+     * started ends on the next tick.
+     * @param p
+     * @return true if the promotion was pending or active
+     */
+    public synchronized boolean cancel(Promotion p) {
+        if (p.state == PENDING) {
+            unlink(p);
+            p.state = CANCELLED;
+            scheduled--;
+            return true;
+        }
+        if (p.state == ACTIVE) {
+            unlink(p);
+            link(p, OVERDUE);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Processes every tick up to the current time.
+     * @return number of promotions started or ended
+     */
+    public synchronized int advance() {
+        long now = clock.getAsLong();
+        long target = Math.floorDiv(now - origin, tickMillis);
+        int applied = 0;
+        for (;;) {
+            drain(OVERDUE);
+            if (ending.isEmpty() && starting.isEmpty()) {
+                if (currentTick >= target) break;
+                currentTick = Math.min(target, skipEmpty() + 1);
+                cascade();
+                drain(slot(0, currentTick));
+                if (!ending.isEmpty() || !starting.isEmpty()) {
+                    maxLagMillis = Math.max(maxLagMillis, now - (origin + currentTick * tickMillis));
+                }
+            }
+            applied += ending.size() + starting.size();
+            try {
+                for (Promotion p : ending) end(p);
+                for (Promotion p : starting) start(p);
+            } finally {
+                ending.clear();
+                starting.clear();
+            }
+        }
+        return applied;
+    }
+
+    private void start(Promotion p) {
+        p.state = ACTIVE;
+        starts++;
+        if (p.endTick != Long.MAX_VALUE) insert(p, p.endTick);
+        for (Product product : p.products) {
+            Promoted s = promoted.get(product);
+            if (s == null) {
+                s = new Promoted(product.getDiscount());
+                promoted.put(product, s);
+            }
+            int i = s.active.size();
+            while (i > 0 && s.active.get(i - 1).winsOver(p)) i--;
+            s.active.add(i, p);
+            if (i == s.active.size() - 1) apply(product, p.discount);
+        }
+    }
+
+    private void end(Promotion p) {
+        p.state = ENDED;
+        ends++;
+        scheduled--;
+        for (Product product : p.products) {
+            Promoted s = promoted.get(product);
+            int i = s.active.indexOf(p);
+            s.active.remove(i);
+            if (s.active.isEmpty()) {
+                promoted.remove(product);
+                apply(product, s.base);
+            } else if (i == s.active.size()) {
+                apply(product, s.active.get(i - 1).discount);
+            }
+        }
+    }
+
+    private void apply(Product product, double discount) {
+        try {
+            product.applyDiscount(discount);
+        } catch (RuntimeException e) {
+            failed(e);
+        }
+    }
+
+    private synchronized void failed(RuntimeException e) {
+        failures++;
+        lastFailure = e;
+    }
+
+    private long tickOf(long millis) {
+        return -Math.floorDiv(origin - millis, tickMillis);
+    }
+
+    private static int slot(int level, long tick) {
+        return level * SLOTS + ((int) (tick >>> (level * BITS)) & (SLOTS - 1));
+    }
+
+    /** Links a promotion into the bucket for its due tick. */
+    private void insert(Promotion p, long due) {
+        if (due <= currentTick) {
+            link(p, OVERDUE);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int above = (level + 1) * BITS;
+            if (above >= Long.SIZE || (due >>> above) == (currentTick >>> above)) {
+                link(p, slot(level, due));
+                return;
+            }
+        }
+        link(p, OVERFLOW);
+    }
+
+    /**
+     * Returns the last tick before the next one that can have work: the end
+     * of the current turn of the lowest non-empty level.
+     */
+    private long skipEmpty() {
+        int level = 0;
+        while (level < LEVELS && perLevel[level] == 0) level++;
+        if (level == 0) return currentTick;
+        long turn = level < LEVELS ? (1L << (level * BITS)) - 1 : (1L << (LEVELS * BITS)) - 1;
+        return currentTick | turn;
+    }
+
+    /** Moves the promotions of the slots that begin a turn at this tick down a level. */
+    private void cascade() {
+        if ((currentTick & ((1L << (LEVELS * BITS)) - 1)) == 0) reinsert(OVERFLOW);
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (level * BITS)) - 1)) == 0) reinsert(slot(level, currentTick));
+        }
+    }
+
+    private void reinsert(int bucket) {
+        Promotion p = buckets[bucket];
+        buckets[bucket] = null;
+        while (p != null) {
+            Promotion next = p.next;
+            if (bucket < OVERDUE) perLevel[bucket / SLOTS]--;
+            p.prev = p.next = null;
+            p.bucket = -1;
+            insert(p, p.state == PENDING ? p.startTick : p.endTick);
+            p = next;
+        }
+    }
+
+    private void drain(int bucket) {
+        Promotion p = buckets[bucket];
+        buckets[bucket] = null;
+        while (p != null) {
+            Promotion next = p.next;
+            if (bucket < OVERDUE) perLevel[bucket / SLOTS]--;
+            p.prev = p.next = null;
+            p.bucket = -1;
+            (p.state == PENDING ? starting : ending).add(p);
+            p = next;
+        }
+    }
+
+    private void link(Promotion p, int bucket) {
+        Promotion head = buckets[bucket];
+        p.next = head;
+        if (head != null) head.prev = p;
+        buckets[bucket] = p;
+        p.bucket = bucket;
+        if (bucket < OVERDUE) perLevel[bucket / SLOTS]++;
+    }
+
+    private void unlink(Promotion p) {
+        if (p.bucket < 0) return;
+        if (p.prev != null) {
+            p.prev.next = p.next;
+        } else {
+            buckets[p.bucket] = p.next;
+        }
+        if (p.next != null) p.next.prev = p.prev;
+        if (p.bucket < OVERDUE) perLevel[p.bucket / SLOTS]--;
+        p.prev = p.next = null;
+        p.bucket = -1;
+    }
+
+    /** Number of promotions that have not ended or been cancelled. */
+    public synchronized int getScheduled() { return scheduled; }
+
+    public synchronized long getStarts() { return starts; }
+
+    public synchronized long getEnds() { return ends; }
+
+    /** Largest delay between a tick's time and applying its promotions. */
+    public synchronized long getMaxLagMillis() { return maxLagMillis; }
+
+    /** Number of discounts that could not be applied, and ticker runs that failed. */
+    public synchronized long getFailures() { return failures; }
+
+    /** The most recent of the failures, or null. */
+    public synchronized RuntimeException getLastFailure() { return lastFailure; }
+
+    /**
+     * Starts a thread that calls {@link #advance()} at every tick.
+     */
+    public synchronized void start() {
+        if (ticker != null) return;
+        running = true;
+        ticker = new Thread(() -> {
+            while (running) {
+                try {
+                    advance();
+                } catch (RuntimeException e) {
+                    failed(e);
+                }
+                long next;
+                synchronized (this) {
+                    next = origin + (currentTick + 1) * tickMillis;
+                }
+                long wait = next - clock.getAsLong();
+                if (wait > 0) LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(wait));
+            }
+        }, "promotion-scheduler");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Stops the thread started with {@link #start()}; scheduled promotions
+     * stay scheduled.
+     */
+    public void close() {
+        Thread t;
+        synchronized (this) {
+            t = ticker;
+            ticker = null;
+            running = false;
+        }
+        if (t == null) return;
+        LockSupport.unpark(t);
+        try {
+            t.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package main.najah.code;
 
+import main.najah.metrics.Metric;
+import main.najah.metrics.Metrics;
+
 /**
  * @author Eng
  */
 public class Recipe {
+    private static final Metric SET_PRICE = Metrics.metric("Recipe.setPrice");
+    private static final Metric SET_COFFEE = Metrics.metric("Recipe.setAmtCoffee");
+    private static final Metric SET_MILK = Metrics.metric("Recipe.setAmtMilk");
+    private static final Metric SET_SUGAR = Metrics.metric("Recipe.setAmtSugar");
+    private static final Metric SET_CHOCOLATE = Metrics.metric("Recipe.setAmtChocolate");
+    
     private String name;
     private int price;
     private int amtCoffee;
@@ -33,16 +42,21 @@ public class Recipe {
 	 * @param amtChocolate   The amtChocolate to set.
 	 */
     public void setAmtChocolate(String chocolate) throws RecipeException {
-    	int amtChocolate = 0;
-    	try {
-    		amtChocolate = Integer.parseInt(chocolate);
-    	} catch (NumberFormatException e) {
-    		throw new RecipeException("Units of chocolate must be a positive integer");
-    	}
+    	setAmtChocolate(chocolate, RecipeException.getDefaultMode());
+	}
+    /**
+	 * @param chocolate   The value to set.
+	 * @param mode   How a rejected value is reported.
+	 */
+    public void setAmtChocolate(String chocolate, RecipeException.Mode mode) throws RecipeException {
+    	long start = SET_CHOCOLATE.start();
+    	int amtChocolate = parseAmount(chocolate);
 		if (amtChocolate >= 0) {
 			this.amtChocolate = amtChocolate;
+			SET_CHOCOLATE.stop(start);
 		} else {
-			throw new RecipeException("Units of chocolate must be a positive integer");
+			SET_CHOCOLATE.fail(start);
+			throw RecipeException.of(RecipeException.Ingredient.CHOCOLATE, mode);
 		}
 	}
     /**
@@ -55,16 +69,21 @@ public class Recipe {
 	 * @param amtCoffee   The amtCoffee to set.
 	 */
     public void setAmtCoffee(String coffee) throws RecipeException {
-    	int amtCoffee = 0;
-    	try {
-    		amtCoffee = Integer.parseInt(coffee);
-    	} catch (NumberFormatException e) {
-    		throw new RecipeException("Units of coffee must be a positive integer");
-    	}
+    	setAmtCoffee(coffee, RecipeException.getDefaultMode());
+	}
+    /**
+	 * @param coffee   The value to set.
+	 * @param mode   How a rejected value is reported.
+	 */
+    public void setAmtCoffee(String coffee, RecipeException.Mode mode) throws RecipeException {
+    	long start = SET_COFFEE.start();
+    	int amtCoffee = parseAmount(coffee);
 		if (amtCoffee >= 0) {
 			this.amtCoffee = amtCoffee;
+			SET_COFFEE.stop(start);
 		} else {
-			throw new RecipeException("Units of coffee must be a positive integer");
+			SET_COFFEE.fail(start);
+			throw RecipeException.of(RecipeException.Ingredient.COFFEE, mode);
 		}
 	}
     /**
@@ -76,17 +95,22 @@ public class Recipe {
     /**
 	 * @param amtMilk   The amtMilk to set.
 	 */
-    public void setAmtMilk(String milk) throws RecipeException{
-    	int amtMilk = 0;
-    	try {
-    		amtMilk = Integer.parseInt(milk);
-    	} catch (NumberFormatException e) {
-    		throw new RecipeException("Units of milk must be a positive integer");
-    	}
+    public void setAmtMilk(String milk) throws RecipeException {
+    	setAmtMilk(milk, RecipeException.getDefaultMode());
+	}
+    /**
+	 * @param milk   The value to set.
+	 * @param mode   How a rejected value is reported.
+	 */
+    public void setAmtMilk(String milk, RecipeException.Mode mode) throws RecipeException {
+    	long start = SET_MILK.start();
+    	int amtMilk = parseAmount(milk);
 		if (amtMilk >= 0) {
 			this.amtMilk = amtMilk;
+			SET_MILK.stop(start);
 		} else {
-			throw new RecipeException("Units of milk must be a positive integer");
+			SET_MILK.fail(start);
+			throw RecipeException.of(RecipeException.Ingredient.MILK, mode);
 		}
 	}
     /**
@@ -99,16 +123,21 @@ public class Recipe {
 	 * @param amtSugar   The amtSugar to set.
 	 */
     public void setAmtSugar(String sugar) throws RecipeException {
-    	int amtSugar = 0;
-    	try {
-    		amtSugar = Integer.parseInt(sugar);
-    	} catch (NumberFormatException e) {
-    		throw new RecipeException("Units of sugar must be a positive integer");
-    	}
+    	setAmtSugar(sugar, RecipeException.getDefaultMode());
+	}
+    /**
+	 * @param sugar   The value to set.
+	 * @param mode   How a rejected value is reported.
+	 */
+    public void setAmtSugar(String sugar, RecipeException.Mode mode) throws RecipeException {
+    	long start = SET_SUGAR.start();
+    	int amtSugar = parseAmount(sugar);
 		if (amtSugar >= 0) {
 			this.amtSugar = amtSugar;
+			SET_SUGAR.stop(start);
 		} else {
-			throw new RecipeException("Units of sugar must be a positive integer");
+			SET_SUGAR.fail(start);
+			throw RecipeException.of(RecipeException.Ingredient.SUGAR, mode);
 		}
 	}
     /**
@@ -134,20 +163,69 @@ public class Recipe {
     /**
 	 * @param price   The price to set.
 	 */
-    public void setPrice(String price) throws RecipeException{
-    	int amtPrice = 0;
-    	try {
-    		amtPrice = Integer.parseInt(price);
-    	} catch (NumberFormatException e) {
-    		throw new RecipeException("Price must be a positive integer");
-    	}
+    public void setPrice(String price) throws RecipeException {
+    	setPrice(price, RecipeException.getDefaultMode());
+	}
+    /**
+	 * @param price   The value to set.
+	 * @param mode   How a rejected value is reported.
+	 */
+    public void setPrice(String price, RecipeException.Mode mode) throws RecipeException {
+    	long start = SET_PRICE.start();
+    	int amtPrice = parseAmount(price);
 		if (amtPrice >= 0) {
 			this.price = amtPrice;
+			SET_PRICE.stop(start);
 		} else {
-			throw new RecipeException("Price must be a positive integer");
+			SET_PRICE.fail(start);
+			throw RecipeException.of(RecipeException.Ingredient.PRICE, mode);
 		}
 	} 
     
+    /**
+     * Sets the price and all amounts at once, for values that have already
+     * been validated.
+     */
+    void setValues(int price, int amtCoffee, int amtMilk, int amtSugar, int amtChocolate) {
+    	this.price = price;
+    	this.amtCoffee = amtCoffee;
+    	this.amtMilk = amtMilk;
+    	this.amtSugar = amtSugar;
+    	this.amtChocolate = amtChocolate;
+    }
+    
+    /**
+     * Parses a non-negative amount the way Integer.parseInt would, but returns
+     * -1 for anything invalid or negative instead of throwing, so rejected
+     * values never pay for a NumberFormatException.
+     * @param value
+     * @return int the amount, or -1
+     */
+    static int parseAmount(String value) {
+    	if (value == null || value.isEmpty()) {
+    		return -1;
+    	}
+    	int i = 0;
+    	boolean negative = false;
+    	char first = value.charAt(0);
+    	if (first == '-' || first == '+') {
+    		negative = first == '-';
+    		if (value.length() == 1) {
+    			return -1;
+    		}
+    		i = 1;
+    	}
+    	int result = 0;
+    	for (; i < value.length(); i++) {
+    		int digit = Character.digit(value.charAt(i), 10);
+    		if (digit < 0 || result > (Integer.MAX_VALUE - digit) / 10) {
+    			return -1;
+    		}
+    		result = result * 10 + digit;
+    	}
+    	return negative && result != 0 ? -1 : result;
+    }
+    
     /**
      * Returns the name of the recipe.
      * @return String
@@ -1,29 +1,232 @@
 package main.najah.code;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import main.najah.metrics.Metric;
+import main.najah.metrics.Metrics;
+
 public class RecipeBook {
 	
+	/** Time spent waiting for the monitor */
+	private static final Metric LOCK_WAIT = Metrics.metric("RecipeBook.lockWait");
+	/** Time the monitor is held */
+	private static final Metric LOCK_HOLD = Metrics.metric("RecipeBook.lockHold");
+	
 	/** Array of recipes in coffee maker*/
 	private Recipe [] recipeArray;
 	/** Number of recipes in coffee maker */
 	private final int NUM_RECIPES = 4; 
+	/** Receives add, edit and delete events, null when nobody listens */
+	private final RecipeEventPublisher events;
+	/** Bit i is set while slot i is empty */
+	private int freeSlots;
+	/** Stable id of the recipe in each slot, -1 for an empty slot */
+	private final long[] ids;
+	/** Id given to the next recipe added */
+	private long nextId;
+	/** Latest version of the menu: an immutable copy of the slots, replaced
+	 *  after every change; entries are interned so that books holding the
+	 *  same recipe share one instance */
+	private volatile Version current;
+	/** Versions still available, by number: the most recent ones and any
+	 *  older ones a reader has pinned */
+	private final ConcurrentSkipListMap<Long, Version> versions = new ConcurrentSkipListMap<>();
+	/** Number of most recent versions kept without being pinned */
+	private volatile int retainedVersions = 16;
+	/** Slots changed by the mutation in progress, null when there is none */
+	private ImmutableRecipe[] draft;
+	/** Called with every new menu, while the monitor is held */
+	private final List<Consumer<List<ImmutableRecipe>>> menuListeners = new CopyOnWriteArrayList<>();
 	
 	/**
 	 * Default constructor for a RecipeBook.
 	 */
 	public RecipeBook() {
+		this(null);
+	}
+	
+	/**
+	 * Creates a RecipeBook that reports every change to the given publisher.
+	 * @param events
+	 */
+	public RecipeBook(RecipeEventPublisher events) {
 		recipeArray = new Recipe[NUM_RECIPES];
+		freeSlots = (1 << NUM_RECIPES) - 1;
+		ids = new long[NUM_RECIPES];
+		Arrays.fill(ids, -1);
+		this.events = events;
+		this.current = new Version(0, Collections.unmodifiableList(Arrays.asList(new ImmutableRecipe[NUM_RECIPES])));
+		versions.put(0L, current);
 	}
 	
 	/**
-	 * Returns the recipe array.
+	 * Returns the publisher changes are reported to, or null.
+	 * @return RecipeEventPublisher
+	 */
+	public RecipeEventPublisher getEventPublisher() {
+		return events;
+	}
+	
+	/**
+	 * Returns the recipe array. The array is live and changes as the book
+	 * does; use {@link #pin()} for a view that stays consistent.
 	 * @param r
 	 * @return Recipe[]
 	 */
-	public synchronized Recipe[] getRecipes() {
-		return recipeArray;
+	public Recipe[] getRecipes() {
+		long requested = LOCK_WAIT.start();
+		synchronized (this) {
+			long acquired = LOCK_WAIT.stop(requested);
+			try {
+				return recipeArray;
+			} finally {
+				LOCK_HOLD.stop(acquired);
+			}
+		}
+	}
+	
+	/**
+	 * Returns an immutable copy of the slots, taken after the last add, edit or
+	 * delete. Reading it never takes the lock. Changes made to a Recipe after
+	 * it was handed to the book are not reflected until the slot changes again.
+	 * Empty slots are null.
+	 * @return List of ImmutableRecipe, one per slot
+	 */
+	public List<ImmutableRecipe> getMenu() {
+		return current.menu;
+	}
+	
+	/**
+	 * Returns the number of the current version. Every add, edit, delete or
+	 * compaction that changes the book creates the next version.
+	 * @return long
+	 */
+	public long getVersion() {
+		return current.number;
+	}
+	
+	/**
+	 * Returns the menu as it was at a version, without taking the lock.
+	 * @param atVersion
+	 * @return List of ImmutableRecipe, one per slot
+	 * @throws IllegalArgumentException if the version has been reclaimed or does not exist yet
+	 */
+	public List<ImmutableRecipe> getMenu(long atVersion) {
+		return version(atVersion).menu;
+	}
+	
+	/**
+	 * Returns copies of the recipes as they were at a version, without
+	 * taking the lock. Changing the copies does not change the book.
+	 * @param atVersion
+	 * @return Recipe[], null for empty slots
+	 * @throws IllegalArgumentException if the version has been reclaimed or does not exist yet
+	 */
+	public Recipe[] getRecipes(long atVersion) {
+		return version(atVersion).toRecipes();
+	}
+	
+	private Version version(long atVersion) {
+		Version v = versions.get(atVersion);
+		if (v == null) {
+			throw new IllegalArgumentException("Version " + atVersion + " is not available");
+		}
+		return v;
+	}
+	
+	/**
+	 * Pins the current version, keeping it available until the snapshot is
+	 * closed. Never takes the lock.
+	 * @return Snapshot
+	 */
+	public Snapshot pin() {
+		for (;;) {
+			Version v = current;
+			if (v.tryPin()) {
+				return new Snapshot(this, v);
+			}
+		}
 	}
 	
-	public synchronized boolean addRecipe(Recipe r) {
+	/**
+	 * Pins an older version, keeping it available until the snapshot is
+	 * closed.
+	 * @param atVersion
+	 * @return Snapshot
+	 * @throws IllegalArgumentException if the version has been reclaimed or does not exist yet
+	 */
+	public Snapshot pin(long atVersion) {
+		Version v = version(atVersion);
+		if (!v.tryPin()) {
+			throw new IllegalArgumentException("Version " + atVersion + " is not available");
+		}
+		return new Snapshot(this, v);
+	}
+	
+	/**
+	 * Sets how many of the most recent versions stay available without being
+	 * pinned, the current one included. Older versions are reclaimed as soon
+	 * as no snapshot pins them.
+	 * @param count   at least 1
+	 */
+	public void setRetainedVersions(int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("At least the current version is retained");
+		}
+		retainedVersions = count;
+		synchronized (this) {
+			reclaim();
+		}
+	}
+	
+	public int getRetainedVersions() {
+		return retainedVersions;
+	}
+	
+	/**
+	 * Returns the numbers of the versions still available, oldest first.
+	 * @return List of Long
+	 */
+	public List<Long> getAvailableVersions() {
+		return new ArrayList<>(versions.keySet());
+	}
+	
+	/**
+	 * Calls the listener with the new menu after every change to a slot.
+	 * Listeners run while the book is locked, so they see the menus in order
+	 * and must not call back into the book from another thread. A listener
+	 * that throws is logged and does not affect the change or other listeners.
+	 * @param listener
+	 */
+	public void addMenuListener(Consumer<List<ImmutableRecipe>> listener) {
+		menuListeners.add(listener);
+	}
+	
+	public void removeMenuListener(Consumer<List<ImmutableRecipe>> listener) {
+		menuListeners.remove(listener);
+	}
+	
+	public boolean addRecipe(Recipe r) {
+		long requested = LOCK_WAIT.start();
+		synchronized (this) {
+			long acquired = LOCK_WAIT.stop(requested);
+			try {
+				return addRecipeLocked(r);
+			} finally {
+				LOCK_HOLD.stop(acquired);
+			}
+		}
+	}
+	
+	private boolean addRecipeLocked(Recipe r) {
 		//Assume recipe doesn't exist in the array until 
 		//find out otherwise
 		boolean exists = false;
@@ -33,31 +236,48 @@ public class RecipeBook {
 				exists = true;
 			}
 		}
-		//Assume recipe cannot be added until find an empty
-		//spot
-		boolean added = false;
-		//Check for first empty spot in array
-		if (!exists) {
-			for (int i = 0; i < recipeArray.length && !added; i++) {
-				if (recipeArray[i] == null) {
-					recipeArray[i] = r;
-					added = true;
-				}
-			}
+		//Take the first empty spot, if any
+		if (exists || freeSlots == 0) {
+			return false;
 		}
-		return added;
+		int i = Integer.numberOfTrailingZeros(freeSlots);
+		freeSlots &= ~(1 << i);
+		recipeArray[i] = r;
+		ids[i] = nextId++;
+		slotChanged(i);
+		commit();
+		publish(RecipeEvent.Type.ADDED, i, r.getName(), r);
+		return true;
 	}
 
 	/**
 	 * Returns the name of the recipe deleted at the position specified
-	 * and null if the recipe does not exist.
+	 * and null if the recipe does not exist. The slot becomes empty and
+	 * can be used by the next recipe added.
 	 * @param recipeToDelete
 	 * @return String
 	 */
-	public synchronized String deleteRecipe(int recipeToDelete) {
+	public String deleteRecipe(int recipeToDelete) {
+		long requested = LOCK_WAIT.start();
+		synchronized (this) {
+			long acquired = LOCK_WAIT.stop(requested);
+			try {
+				return deleteRecipeLocked(recipeToDelete);
+			} finally {
+				LOCK_HOLD.stop(acquired);
+			}
+		}
+	}
+	
+	private String deleteRecipeLocked(int recipeToDelete) {
 		if (recipeArray[recipeToDelete] != null) {
 			String recipeName = recipeArray[recipeToDelete].getName();
-			recipeArray[recipeToDelete] = new Recipe();
+			recipeArray[recipeToDelete] = null;
+			freeSlots |= 1 << recipeToDelete;
+			ids[recipeToDelete] = -1;
+			slotChanged(recipeToDelete);
+			commit();
+			publish(RecipeEvent.Type.DELETED, recipeToDelete, recipeName, null);
 			return recipeName;
 		} else {
 			return null;
@@ -71,15 +291,227 @@ public class RecipeBook {
 	 * @param newRecipe
 	 * @return String
 	 */
-	public synchronized String editRecipe(int recipeToEdit, Recipe newRecipe) {
+	public String editRecipe(int recipeToEdit, Recipe newRecipe) {
+		long requested = LOCK_WAIT.start();
+		synchronized (this) {
+			long acquired = LOCK_WAIT.stop(requested);
+			try {
+				return editRecipeLocked(recipeToEdit, newRecipe);
+			} finally {
+				LOCK_HOLD.stop(acquired);
+			}
+		}
+	}
+	
+	private String editRecipeLocked(int recipeToEdit, Recipe newRecipe) {
 		if (recipeArray[recipeToEdit] != null) {
 			String recipeName = recipeArray[recipeToEdit].getName();
 			newRecipe.setName("");
 			recipeArray[recipeToEdit] = newRecipe;
+			slotChanged(recipeToEdit);
+			commit();
+			publish(RecipeEvent.Type.EDITED, recipeToEdit, recipeName, newRecipe);
 			return recipeName;
 		} else {
 			return null;
 		}
 	}
+	
+	/**
+	 * Returns the stable id of the recipe in a slot. A recipe keeps its id
+	 * when it is edited or moved by {@link #compact()}, and ids are never
+	 * reused.
+	 * @param slot
+	 * @return long, or -1 if the slot is empty
+	 */
+	public synchronized long getRecipeId(int slot) {
+		return ids[slot];
+	}
+	
+	/**
+	 * Returns the slot now holding the recipe with the given id.
+	 * @param id
+	 * @return int, or -1 if the recipe has been deleted
+	 */
+	public synchronized int getSlot(long id) {
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i] == id && id >= 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Moves all recipes to the lowest slots, keeping their order and ids.
+	 * Every move is published as a delete from the old slot followed by an
+	 * add to the new one.
+	 * @return int[] the new slot of the recipe at each old slot, -1 for
+	 *         slots that were empty
+	 */
+	public int[] compact() {
+		long requested = LOCK_WAIT.start();
+		synchronized (this) {
+			long acquired = LOCK_WAIT.stop(requested);
+			try {
+				return compactLocked();
+			} finally {
+				LOCK_HOLD.stop(acquired);
+			}
+		}
+	}
+	
+	private int[] compactLocked() {
+		int[] remap = new int[NUM_RECIPES];
+		int next = 0;
+		for (int i = 0; i < recipeArray.length; i++) {
+			if (recipeArray[i] == null) {
+				remap[i] = -1;
+				continue;
+			}
+			remap[i] = next;
+			if (next != i) {
+				Recipe r = recipeArray[i];
+				recipeArray[next] = r;
+				ids[next] = ids[i];
+				recipeArray[i] = null;
+				ids[i] = -1;
+				slotChanged(i);
+				slotChanged(next);
+				publish(RecipeEvent.Type.DELETED, i, r.getName(), null);
+				publish(RecipeEvent.Type.ADDED, next, r.getName(), r);
+			}
+			next++;
+		}
+		freeSlots = (1 << NUM_RECIPES) - (1 << next);
+		commit();
+		return remap;
+	}
+	
+	private void slotChanged(int slot) {
+		if (draft == null) {
+			draft = current.menu.toArray(new ImmutableRecipe[NUM_RECIPES]);
+		}
+		Recipe r = recipeArray[slot];
+		draft[slot] = r == null ? null : RecipeInterner.shared().intern(r);
+	}
+	
+	/** Publishes the slots changed by the current mutation as one new version. */
+	private void commit() {
+		if (draft == null) {
+			return;
+		}
+		Version v = new Version(current.number + 1, Collections.unmodifiableList(Arrays.asList(draft)));
+		draft = null;
+		versions.put(v.number, v);
+		current = v;
+		reclaim();
+		for (Consumer<List<ImmutableRecipe>> listener : menuListeners) {
+			// The change is already committed; a failing listener must not undo or block it
+			try {
+				listener.accept(v.menu);
+			} catch (RuntimeException e) {
+				System.getLogger(RecipeBook.class.getName()).log(System.Logger.Level.WARNING,
+					"Menu listener failed on version " + v.number, e);
+			}
+		}
+	}
+	
+	/** Drops the versions older than the retained ones that nobody pins. */
+	private void reclaim() {
+		for (Version v : versions.headMap(current.number - retainedVersions + 1).values()) {
+			v.tryReclaim(versions);
+		}
+	}
+	
+	/** One version of the menu with the number of snapshots pinning it. */
+	private static final class Version {
+		final long number;
+		final List<ImmutableRecipe> menu;
+		/** Number of open snapshots, -1 once reclaimed */
+		final AtomicInteger pins = new AtomicInteger();
+		
+		Version(long number, List<ImmutableRecipe> menu) {
+			this.number = number;
+			this.menu = menu;
+		}
+		
+		boolean tryPin() {
+			for (;;) {
+				int p = pins.get();
+				if (p < 0) {
+					return false;
+				}
+				if (pins.compareAndSet(p, p + 1)) {
+					return true;
+				}
+			}
+		}
+		
+		void tryReclaim(ConcurrentSkipListMap<Long, Version> versions) {
+			if (pins.compareAndSet(0, -1)) {
+				versions.remove(number, this);
+			}
+		}
+		
+		Recipe[] toRecipes() {
+			Recipe[] recipes = new Recipe[menu.size()];
+			for (int i = 0; i < recipes.length; i++) {
+				ImmutableRecipe r = menu.get(i);
+				recipes[i] = r == null ? null : r.toRecipe();
+			}
+			return recipes;
+		}
+	}
+	
+	/**
+	 * A version of the book kept available until it is closed. Reading it
+	 * never takes the book's lock and never sees a change made after it was
+	 * pinned.
+	 */
+	public static final class Snapshot implements AutoCloseable {
+		private final RecipeBook book;
+		private final Version version;
+		private final AtomicBoolean closed = new AtomicBoolean();
+		
+		private Snapshot(RecipeBook book, Version version) {
+			this.book = book;
+			this.version = version;
+		}
+		
+		public long getVersion() {
+			return version.number;
+		}
+		
+		public List<ImmutableRecipe> getMenu() {
+			return version.menu;
+		}
+		
+		/**
+		 * Returns copies of the recipes in this version.
+		 * @return Recipe[], null for empty slots
+		 */
+		public Recipe[] getRecipes() {
+			return version.toRecipes();
+		}
+		
+		/**
+		 * Unpins the version; it is reclaimed now if it is no longer among the
+		 * retained ones and no other snapshot pins it.
+		 */
+		public void close() {
+			if (closed.compareAndSet(false, true)
+					&& version.pins.decrementAndGet() == 0
+					&& version.number <= book.current.number - book.retainedVersions) {
+				version.tryReclaim(book.versions);
+			}
+		}
+	}
+	
+	private void publish(RecipeEvent.Type type, int slot, String name, Recipe recipe) {
+		if (events != null) {
+			events.publish(new RecipeEvent(type, slot, name, recipe));
+		}
+	}
 
 }
@@ -0,0 +1,143 @@
+package main.najah.code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The {@link RecipeBook}s of many stores, looked up by store id.
+ * <p>
+ * Stores are spread over a fixed number of lock stripes. Each stripe keeps
+ * an immutable map of its books that is replaced when a store is created or
+ * removed, so looking up a book never locks and creating one only locks its
+ * own stripe. Menus of all books share interned {@link ImmutableRecipe}s.
+ * Cross-store changes such as {@link #addToAllStores(Recipe)} run one task
+ * per stripe in parallel.
+ */
+public class RecipeBookRegistry {
+
+    private final Stripe[] stripes;
+    private final Function<String, RecipeBook> factory;
+
+    /**
+     * Creates a registry with four stripes per processor, whose books do not
+     * publish events.
+     */
+    public RecipeBookRegistry() {
+        this(4 * Runtime.getRuntime().availableProcessors(), id -> new RecipeBook());
+    }
+
+    /**
+     * @param stripes   number of lock stripes, rounded up to a power of two
+     * @param factory   creates the book of a new store from its id
+     */
+    public RecipeBookRegistry(int stripes, Function<String, RecipeBook> factory) {
+        if (stripes <= 0 || stripes > 1 << 16) throw new IllegalArgumentException("Invalid stripe count");
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) this.stripes[i] = new Stripe();
+        this.factory = factory;
+    }
+
+    private Stripe stripe(String storeId) {
+        int h = storeId.hashCode();
+        return stripes[(h ^ h >>> 16) & stripes.length - 1];
+    }
+
+    /**
+     * Returns the book of a store, creating it if the store is new.
+     * @param storeId
+     * @return RecipeBook
+     */
+    public RecipeBook book(String storeId) {
+        Stripe s = stripe(storeId);
+        RecipeBook b = s.books.get(storeId);
+        if (b != null) return b;
+        synchronized (s) {
+            b = s.books.get(storeId);
+            if (b == null) {
+                b = factory.apply(storeId);
+                Map<String, RecipeBook> copy = new HashMap<>(s.books);
+                copy.put(storeId, b);
+                s.books = Collections.unmodifiableMap(copy);
+            }
+            return b;
+        }
+    }
+
+    /**
+     * Returns the book of a store, or null if the store does not exist.
+     * @param storeId
+     * @return RecipeBook
+     */
+    public RecipeBook get(String storeId) {
+        return stripe(storeId).books.get(storeId);
+    }
+
+    /**
+     * Removes a store and returns its book, or null if it did not exist.
+     * @param storeId
+     * @return RecipeBook
+     */
+    public RecipeBook remove(String storeId) {
+        Stripe s = stripe(storeId);
+        synchronized (s) {
+            if (!s.books.containsKey(storeId)) return null;
+            Map<String, RecipeBook> copy = new HashMap<>(s.books);
+            RecipeBook b = copy.remove(storeId);
+            s.books = Collections.unmodifiableMap(copy);
+            return b;
+        }
+    }
+
+    /**
+     * Returns the number of stores.
+     * @return int
+     */
+    public int size() {
+        int n = 0;
+        for (Stripe s : stripes) n += s.books.size();
+        return n;
+    }
+
+    /**
+     * Returns the ids of all stores, in no particular order.
+     * @return List of String
+     */
+    public List<String> getStoreIds() {
+        List<String> ids = new ArrayList<>();
+        for (Stripe s : stripes) ids.addAll(s.books.keySet());
+        return ids;
+    }
+
+    /**
+     * Adds a recipe to every store, one parallel task per stripe. Each book
+     * gets its own copy of the recipe, so editing it through one store's
+     * {@link RecipeBook#getRecipes()} does not affect the others; the menus
+     * of all stores share one interned instance.
+     * @param r
+     * @return int number of stores that added the recipe; stores that already
+     *         have it or are full are left unchanged
+     */
+    public int addToAllStores(Recipe r) {
+        ImmutableRecipe canonical = RecipeInterner.shared().intern(r);
+        LongAdder added = new LongAdder();
+        Arrays.stream(stripes).parallel().forEach(s -> {
+            for (RecipeBook b : s.books.values()) {
+                if (b.addRecipe(canonical.toRecipe())) added.increment();
+            }
+        });
+        return added.intValue();
+    }
+
+    /** Books of the stores whose ids hash to one stripe. */
+    private static final class Stripe {
+        /** Replaced, never modified, under the stripe's monitor */
+        volatile Map<String, RecipeBook> books = Collections.emptyMap();
+    }
+}
@@ -0,0 +1,210 @@
+package main.najah.code;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the ingredient cost and margin of a set of recipes up to date as
+ * ingredient prices change.
+ * <p>
+ * Recipes are stored column by column, and the engine also keeps the total
+ * amount of each ingredient over all recipes and the total sale price.
+ * Changing a unit price therefore touches nothing but that price: the cost
+ * of the whole menu is each ingredient's total amount times its unit price,
+ * and a recipe's own cost is its amounts times the unit prices, so both are
+ * a few multiplications, always current and never a rescan of the recipes.
+ * <p>
+ * Unit prices are kept in millionths of the price unit of
+ * {@link Recipe#getPrice()}, so costs are exact sums and do not drift as
+ * prices keep changing. Recipes are identified by name. Safe for concurrent
+ * use; listeners are told about every price change, on the changing thread.
+ */
+public class RecipeCostEngine {
+
+    /** An ingredient with a unit price. */
+    public enum Ingredient { COFFEE, MILK, SUGAR, CHOCOLATE }
+
+    private static final int INGREDIENTS = Ingredient.values().length;
+    private static final double MICROS = 1_000_000;
+
+    private final long[] unitMicros = new long[INGREDIENTS];
+    private final long[] totalAmount = new long[INGREDIENTS];
+    private final Map<String, Integer> rows = new HashMap<>();
+    private String[] names = new String[16];
+    private int[] prices = new int[16];
+    private int[][] amounts = new int[INGREDIENTS][16];
+    private int size;
+    private long totalPrice;
+    private final List<Consumer<Ingredient>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Sets the price of one unit of an ingredient.
+     * @param ingredient
+     * @param unitPrice   non-negative, in the price unit of {@link Recipe#getPrice()}
+     */
+    public void setUnitPrice(Ingredient ingredient, double unitPrice) {
+        if (!(unitPrice >= 0)) throw new IllegalArgumentException("Unit price must be non-negative");
+        synchronized (this) {
+            unitMicros[ingredient.ordinal()] = Math.round(unitPrice * MICROS);
+        }
+        for (Consumer<Ingredient> listener : listeners) listener.accept(ingredient);
+    }
+
+    public synchronized double getUnitPrice(Ingredient ingredient) {
+        return unitMicros[ingredient.ordinal()] / MICROS;
+    }
+
+    /**
+     * Calls the listener after every unit price change.
+     * @param listener
+     */
+    public void addListener(Consumer<Ingredient> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Ingredient> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a recipe, replacing any recipe with the same name.
+     * @param r
+     */
+    public void put(Recipe r) {
+        put(r.getName(), r.getPrice(), r.getAmtCoffee(), r.getAmtMilk(), r.getAmtSugar(), r.getAmtChocolate());
+    }
+
+    /**
+     * Adds a recipe, replacing any recipe with the same name.
+     * @param r
+     */
+    public void put(ImmutableRecipe r) {
+        put(r.getName(), r.getPrice(), r.getAmtCoffee(), r.getAmtMilk(), r.getAmtSugar(), r.getAmtChocolate());
+    }
+
+    private synchronized void put(String name, int price, int coffee, int milk, int sugar, int chocolate) {
+        Integer row = rows.get(name);
+        int i;
+        if (row != null) {
+            i = row;
+            subtract(i);
+        } else {
+            if (size == names.length) grow();
+            i = size++;
+            rows.put(name, i);
+            names[i] = name;
+        }
+        prices[i] = price;
+        amounts[Ingredient.COFFEE.ordinal()][i] = coffee;
+        amounts[Ingredient.MILK.ordinal()][i] = milk;
+        amounts[Ingredient.SUGAR.ordinal()][i] = sugar;
+        amounts[Ingredient.CHOCOLATE.ordinal()][i] = chocolate;
+        totalPrice += price;
+        for (int k = 0; k < INGREDIENTS; k++) totalAmount[k] += amounts[k][i];
+    }
+
+    /**
+     * Removes a recipe.
+     * @param name
+     * @return true if the recipe was known
+     */
+    public synchronized boolean remove(String name) {
+        Integer row = rows.remove(name);
+        if (row == null) return false;
+        int i = row;
+        subtract(i);
+        // Move the last row into the gap
+        int last = --size;
+        if (i != last) {
+            names[i] = names[last];
+            prices[i] = prices[last];
+            for (int k = 0; k < INGREDIENTS; k++) amounts[k][i] = amounts[k][last];
+            rows.put(names[i], i);
+        }
+        names[last] = null;
+        return true;
+    }
+
+    private void subtract(int i) {
+        totalPrice -= prices[i];
+        for (int k = 0; k < INGREDIENTS; k++) totalAmount[k] -= amounts[k][i];
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        for (int k = 0; k < INGREDIENTS; k++) amounts[k] = Arrays.copyOf(amounts[k], capacity);
+    }
+
+    public synchronized int size() { return size; }
+
+    /**
+     * Returns the ingredient cost of one serving of a recipe.
+     * @param name
+     * @return double, NaN if the recipe is unknown
+     */
+    public synchronized double getCost(String name) {
+        Integer row = rows.get(name);
+        return row == null ? Double.NaN : costMicros(row) / MICROS;
+    }
+
+    /**
+     * Returns the sale price minus the ingredient cost of one serving.
+     * @param name
+     * @return double, NaN if the recipe is unknown
+     */
+    public synchronized double getMargin(String name) {
+        Integer row = rows.get(name);
+        return row == null ? Double.NaN : (prices[row] * (long) MICROS - costMicros(row)) / MICROS;
+    }
+
+    /**
+     * Returns the margin as a fraction of the sale price.
+     * @param name
+     * @return double, NaN if the recipe is unknown or free
+     */
+    public synchronized double getMarginRatio(String name) {
+        Integer row = rows.get(name);
+        if (row == null || prices[row] == 0) return Double.NaN;
+        return (prices[row] * (long) MICROS - costMicros(row)) / MICROS / prices[row];
+    }
+
+    /** Cost of one serving of every recipe together. */
+    public synchronized double getTotalCost() {
+        return totalCostMicros() / MICROS;
+    }
+
+    /** Sale price minus cost of one serving of every recipe together. */
+    public synchronized double getTotalMargin() {
+        return (totalPrice * (long) MICROS - totalCostMicros()) / MICROS;
+    }
+
+    /**
+     * Returns the margin of every recipe, in the order they were added
+     * except that a removal moves the last recipe into its place.
+     * @return Map from recipe name to margin
+     */
+    public synchronized Map<String, Double> getMargins() {
+        Map<String, Double> margins = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) margins.put(names[i], (prices[i] * (long) MICROS - costMicros(i)) / MICROS);
+        return margins;
+    }
+
+    private long costMicros(int i) {
+        long cost = 0;
+        for (int k = 0; k < INGREDIENTS; k++) cost += amounts[k][i] * unitMicros[k];
+        return cost;
+    }
+
+    private long totalCostMicros() {
+        long cost = 0;
+        for (int k = 0; k < INGREDIENTS; k++) cost += totalAmount[k] * unitMicros[k];
+        return cost;
+    }
+}
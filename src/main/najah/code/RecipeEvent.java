@@ -0,0 +1,38 @@
+package main.najah.code;
+
+/**
+ * A single change made to a {@link RecipeBook} slot.
+ */
+public final class RecipeEvent {
+
+    /** Kind of change applied to the slot. */
+    public enum Type { ADDED, EDITED, DELETED }
+
+    private final Type type;
+    private final int slot;
+    private final String name;
+    private final Recipe recipe;
+
+    /**
+     * @param type     kind of change
+     * @param slot     index of the slot that changed
+     * @param name     name of the recipe that was in the slot before the change,
+     *                 or of the new recipe for {@link Type#ADDED}
+     * @param recipe   recipe now held in the slot, null once it has been deleted
+     */
+    public RecipeEvent(Type type, int slot, String name, Recipe recipe) {
+        this.type = type;
+        this.slot = slot;
+        this.name = name;
+        this.recipe = recipe;
+    }
+
+    public Type getType() { return type; }
+    public int getSlot() { return slot; }
+    public String getName() { return name; }
+    public Recipe getRecipe() { return recipe; }
+
+    public String toString() {
+        return type + "[" + slot + "] " + name;
+    }
+}
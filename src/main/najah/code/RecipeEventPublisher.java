@@ -0,0 +1,223 @@
+package main.najah.code;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes {@link RecipeBook} changes to subscribers in batches.
+ * <p>
+ * Writers only append to a lock-free queue while holding the book's monitor.
+ * A single flusher thread drains the queue after a short linger, or as soon as
+ * a full batch is waiting, and hands each batch to a {@link SubmissionPublisher}
+ * which buffers it per subscriber and honours their demand. A slow subscriber
+ * therefore holds up the flusher, and the changes that pile up meanwhile wait
+ * in the queue and go out as consecutive batches of at most
+ * {@code maxBatchSize} events once it catches up, instead of blocking the book.
+ * <p>
+ * Nothing waits forever on a subscriber. The queue holds at most
+ * {@code maxPending} events, and a change that finds it full is dropped. A
+ * subscriber whose buffer stays full for {@code offerTimeoutMillis} misses the
+ * batch. {@link #close()} delivers what is still queued if the flusher
+ * finishes within {@link #CLOSE_TIMEOUT_MILLIS}, and drops it otherwise, so it
+ * returns within that time plus one offer timeout. All of these are counted
+ * in {@link #getDroppedCount()}. Changes published after {@code close()} are
+ * ignored.
+ */
+public class RecipeEventPublisher implements Flow.Publisher<List<RecipeEvent>>, AutoCloseable {
+
+    /** Default number of events delivered in one batch. */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    /** Default time an event may wait for others to join its batch. */
+    public static final long DEFAULT_LINGER_MILLIS = 10;
+    /** Default number of events queued before further ones are dropped. */
+    public static final int DEFAULT_MAX_PENDING = 65_536;
+    /** Default time the flusher waits for a full subscriber buffer before that subscriber misses a batch. */
+    public static final long DEFAULT_OFFER_TIMEOUT_MILLIS = 1000;
+    /** How long {@link #close()} waits for the flusher before dropping what is left. */
+    public static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    private final SubmissionPublisher<List<RecipeEvent>> publisher;
+    private final ScheduledExecutorService flusher;
+    private final ConcurrentLinkedQueue<RecipeEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicInteger publishing = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final int maxBatchSize;
+    private final int maxPending;
+    private final long lingerMillis;
+    private final long offerTimeoutMillis;
+    private volatile boolean closed;
+    private volatile boolean abandoned;
+
+    /**
+     * Creates a publisher with the default batch size and linger, delivering
+     * on the common pool.
+     */
+    public RecipeEventPublisher() {
+        this(ForkJoinPool.commonPool(), Flow.defaultBufferSize(), DEFAULT_BATCH_SIZE, DEFAULT_LINGER_MILLIS);
+    }
+
+    /**
+     * @param executor        executor used to deliver batches to subscribers
+     * @param bufferCapacity  batches buffered per subscriber before the flusher waits
+     * @param maxBatchSize    largest number of events in one batch
+     * @param lingerMillis    how long the first event of a batch waits for others
+     */
+    public RecipeEventPublisher(Executor executor, int bufferCapacity, int maxBatchSize, long lingerMillis) {
+        this(executor, bufferCapacity, maxBatchSize, lingerMillis, Math.max(maxBatchSize, DEFAULT_MAX_PENDING),
+            DEFAULT_OFFER_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param executor            executor used to deliver batches to subscribers
+     * @param bufferCapacity      batches buffered per subscriber before the flusher waits
+     * @param maxBatchSize        largest number of events in one batch
+     * @param lingerMillis        how long the first event of a batch waits for others
+     * @param maxPending          events queued while the flusher waits before further ones are dropped
+     * @param offerTimeoutMillis  how long the flusher waits for a full subscriber buffer
+     */
+    public RecipeEventPublisher(Executor executor, int bufferCapacity, int maxBatchSize, long lingerMillis,
+            int maxPending, long offerTimeoutMillis) {
+        if (maxBatchSize <= 0) throw new IllegalArgumentException("Batch size must be positive");
+        if (lingerMillis < 0) throw new IllegalArgumentException("Linger must be non-negative");
+        if (maxPending < maxBatchSize) throw new IllegalArgumentException("Queue must hold at least one batch");
+        if (offerTimeoutMillis < 0) throw new IllegalArgumentException("Offer timeout must be non-negative");
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxPending = maxPending;
+        this.lingerMillis = lingerMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "recipe-event-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.flusher = scheduler;
+    }
+
+    public void subscribe(Flow.Subscriber<? super List<RecipeEvent>> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Queues an event for the next batch. Never blocks; if the queue is full
+     * the event is dropped and counted.
+     * @param event
+     */
+    public void publish(RecipeEvent event) {
+        // close() waits for publishers that got past the check to finish
+        publishing.incrementAndGet();
+        try {
+            if (closed) return;
+            int count = pendingCount.incrementAndGet();
+            if (count > maxPending) {
+                pendingCount.decrementAndGet();
+                dropped.incrementAndGet();
+                return;
+            }
+            pending.add(event);
+            if (count == maxBatchSize) {
+                flusher.execute(this::flush);
+            } else if (flushScheduled.compareAndSet(false, true)) {
+                flusher.schedule(this::flush, lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            // closing; close() drains the queue itself
+        } finally {
+            publishing.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of events dropped: because the queue was full, once
+     * for each subscriber that missed them, or because {@link #close()} gave
+     * up on the flusher.
+     * @return long
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of current subscribers.
+     * @return int
+     */
+    public int getNumberOfSubscribers() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Delivers whatever is still queued and completes every subscriber. Gives
+     * up after {@link #CLOSE_TIMEOUT_MILLIS} if the flusher is still waiting
+     * on a subscriber, dropping the events it has not handed over; completing
+     * the subscribers then waits for that offer to time out.
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        while (publishing.get() != 0) Thread.onSpinWait();
+        flusher.shutdown();
+        boolean terminated = false;
+        try {
+            terminated = flusher.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (terminated) {
+            flush();
+        } else {
+            // The flusher still owns the head of the queue; delivering the rest
+            // from here would reorder batches, so stop it and drop them
+            abandoned = true;
+            for (List<RecipeEvent> batch = drain(); !batch.isEmpty(); batch = drain()) {
+                dropped.addAndGet(batch.size());
+            }
+        }
+        publisher.close();
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        for (List<RecipeEvent> batch = drain(); !batch.isEmpty(); batch = drain()) {
+            if (abandoned) {
+                dropped.addAndGet(batch.size());
+                continue;
+            }
+            try {
+                publisher.offer(Collections.unmodifiableList(batch), offerTimeoutMillis, TimeUnit.MILLISECONDS,
+                    (subscriber, missed) -> {
+                        dropped.addAndGet(missed.size());
+                        return false;
+                    });
+            } catch (IllegalStateException e) {
+                // close() gave up on us and closed the publisher meanwhile
+                dropped.addAndGet(batch.size());
+            }
+        }
+    }
+
+    private List<RecipeEvent> drain() {
+        List<RecipeEvent> batch = new ArrayList<>(Math.min(maxBatchSize, Math.max(1, pendingCount.get())));
+        RecipeEvent e;
+        while (batch.size() < maxBatchSize && (e = pending.poll()) != null) {
+            batch.add(e);
+        }
+        pendingCount.addAndGet(-batch.size());
+        return batch;
+    }
+}
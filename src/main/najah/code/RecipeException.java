@@ -1,11 +1,113 @@
 package main.najah.code;
 
+import java.util.Locale;
+
 public class RecipeException extends Exception {
 	
 private static final long serialVersionUID = 1L;
 
+	/** The recipe value that failed validation. */
+	public enum Ingredient {
+		PRICE("Price must be a positive integer"),
+		COFFEE("Units of coffee must be a positive integer"),
+		MILK("Units of milk must be a positive integer"),
+		SUGAR("Units of sugar must be a positive integer"),
+		CHOCOLATE("Units of chocolate must be a positive integer");
+
+		private final String message;
+
+		Ingredient(String message) {
+			this.message = message;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+	}
+
+	/**
+	 * How validation failures are reported.
+	 * <ul>
+	 * <li>FULL: a new exception with a stack trace, as before</li>
+	 * <li>STACKLESS: a new exception without a stack trace</li>
+	 * <li>CACHED: one shared, stackless exception per ingredient, so a
+	 * failure allocates nothing</li>
+	 * </ul>
+	 */
+	public enum Mode { FULL, STACKLESS, CACHED }
+
+	private static final RecipeException[] CACHE = new RecipeException[Ingredient.values().length];
+	static {
+		for (Ingredient i : Ingredient.values()) {
+			CACHE[i.ordinal()] = new RecipeException(i.getMessage(), i, false);
+		}
+	}
+
+	private static volatile Mode defaultMode = parseMode(System.getProperty("najah.recipe.exceptions"));
+
+	private final Ingredient ingredient;
+
 	public RecipeException(String msg) {
 		super(msg);
+		this.ingredient = null;
+	}
+
+	/**
+	 * @param msg
+	 * @param ingredient           the value that failed validation
+	 * @param writableStackTrace   false to skip capturing the stack trace
+	 */
+	protected RecipeException(String msg, Ingredient ingredient, boolean writableStackTrace) {
+		super(msg, null, writableStackTrace, writableStackTrace);
+		this.ingredient = ingredient;
+	}
+
+	/**
+	 * Returns the exception reporting that the ingredient is invalid.
+	 * @param ingredient
+	 * @param mode
+	 * @return RecipeException
+	 */
+	public static RecipeException of(Ingredient ingredient, Mode mode) {
+		switch (mode) {
+			case CACHED: return CACHE[ingredient.ordinal()];
+			case STACKLESS: return new RecipeException(ingredient.getMessage(), ingredient, false);
+			default: return new RecipeException(ingredient.getMessage(), ingredient, true);
+		}
+	}
+
+	/**
+	 * Returns the value that failed validation, or null if unknown.
+	 * @return Ingredient
+	 */
+	public Ingredient getIngredient() {
+		return ingredient;
+	}
+
+	/**
+	 * Returns the mode used by the Recipe setters that take no mode. Set at
+	 * startup with {@code -Dnajah.recipe.exceptions=stackless|cached}.
+	 * @return Mode
+	 */
+	public static Mode getDefaultMode() {
+		return defaultMode;
+	}
+
+	public static void setDefaultMode(Mode mode) {
+		if (mode == null) throw new IllegalArgumentException("Mode must not be null");
+		defaultMode = mode;
+	}
+
+	/** Unknown values fall back to FULL: failing here would break every Recipe setter. */
+	private static Mode parseMode(String value) {
+		if (value == null) return Mode.FULL;
+		try {
+			return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			System.getLogger(RecipeException.class.getName()).log(System.Logger.Level.WARNING,
+				"Unknown najah.recipe.exceptions mode \"{0}\", using FULL", value);
+			return Mode.FULL;
+		}
 	}
 
 }
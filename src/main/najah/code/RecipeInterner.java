@@ -0,0 +1,158 @@
+package main.najah.code;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Returns one canonical {@link ImmutableRecipe} for every distinct set of
+ * recipe values.
+ * <p>
+ * Orders that describe the same recipe share a single instance, so only one
+ * copy of each recipe stays in memory and they can be compared with
+ * {@code ==}. Each lookup still allocates a short-lived key.
+ * Canonical instances are only weakly held: once no caller references a
+ * recipe any more the garbage collector may reclaim it, and its entry is
+ * dropped on a later call. Safe for concurrent use.
+ */
+public class RecipeInterner {
+
+    private static final RecipeInterner SHARED = new RecipeInterner();
+
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<ImmutableRecipe> cleared = new ReferenceQueue<>();
+
+    /**
+     * Returns the interner shared by the whole JVM.
+     * @return RecipeInterner
+     */
+    public static RecipeInterner shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the canonical instance equal to the recipe, which becomes the
+     * canonical instance if there is none yet.
+     * @param recipe
+     * @return ImmutableRecipe
+     */
+    public ImmutableRecipe intern(ImmutableRecipe recipe) {
+        ImmutableRecipe found = find(recipe.getName(), recipe.getPrice(), recipe.getAmtCoffee(),
+            recipe.getAmtMilk(), recipe.getAmtSugar(), recipe.getAmtChocolate());
+        return found != null ? found : insert(recipe);
+    }
+
+    /**
+     * Returns the canonical instance holding the recipe's current values.
+     * @param recipe
+     * @return ImmutableRecipe
+     */
+    public ImmutableRecipe intern(Recipe recipe) {
+        ImmutableRecipe found = find(recipe.getName(), recipe.getPrice(), recipe.getAmtCoffee(),
+            recipe.getAmtMilk(), recipe.getAmtSugar(), recipe.getAmtChocolate());
+        return found != null ? found : insert(ImmutableRecipe.from(recipe));
+    }
+
+    /**
+     * Returns the canonical instance with the given values, building and
+     * validating one only if none exists yet.
+     * @return ImmutableRecipe
+     * @throws RecipeException if a value is negative
+     */
+    public ImmutableRecipe intern(String name, int price, int amtCoffee, int amtMilk, int amtSugar,
+            int amtChocolate) throws RecipeException {
+        String n = name == null ? "" : name;
+        ImmutableRecipe found = find(n, price, amtCoffee, amtMilk, amtSugar, amtChocolate);
+        if (found != null) return found;
+        return insert(ImmutableRecipe.builder().name(n).price(price).amtCoffee(amtCoffee)
+            .amtMilk(amtMilk).amtSugar(amtSugar).amtChocolate(amtChocolate).build());
+    }
+
+    /**
+     * Returns the number of entries, including any whose recipe has been
+     * reclaimed but not yet removed.
+     * @return int
+     */
+    public int size() {
+        expunge();
+        return entries.size();
+    }
+
+    private ImmutableRecipe find(String name, int price, int amtCoffee, int amtMilk, int amtSugar, int amtChocolate) {
+        expunge();
+        Entry e = entries.get(new Lookup(name, price, amtCoffee, amtMilk, amtSugar, amtChocolate));
+        return e == null ? null : e.get();
+    }
+
+    private ImmutableRecipe insert(ImmutableRecipe recipe) {
+        Entry entry = new Entry(recipe, cleared);
+        for (;;) {
+            Entry existing = entries.putIfAbsent(entry, entry);
+            if (existing == null) return recipe;
+            ImmutableRecipe canonical = existing.get();
+            if (canonical != null) return canonical;
+            entries.remove(existing, existing);
+        }
+    }
+
+    private void expunge() {
+        Reference<? extends ImmutableRecipe> ref;
+        while ((ref = cleared.poll()) != null) {
+            entries.remove(ref, ref);
+        }
+    }
+
+    /** Map key and value: a weak reference to a canonical recipe. */
+    private static final class Entry extends WeakReference<ImmutableRecipe> {
+        private final int hash;
+
+        Entry(ImmutableRecipe recipe, ReferenceQueue<ImmutableRecipe> queue) {
+            super(recipe, queue);
+            this.hash = recipe.hashCode();
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        /** Live entries are equal by recipe value; cleared ones only to themselves. */
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Entry)) return false;
+            ImmutableRecipe mine = get();
+            return mine != null && mine.equals(((Entry) obj).get());
+        }
+    }
+
+    /** Short-lived key used to look up a canonical recipe by its values. */
+    private static final class Lookup {
+        private final String name;
+        private final int price;
+        private final int amtCoffee;
+        private final int amtMilk;
+        private final int amtSugar;
+        private final int amtChocolate;
+        private final int hash;
+
+        Lookup(String name, int price, int amtCoffee, int amtMilk, int amtSugar, int amtChocolate) {
+            this.name = name;
+            this.price = price;
+            this.amtCoffee = amtCoffee;
+            this.amtMilk = amtMilk;
+            this.amtSugar = amtSugar;
+            this.amtChocolate = amtChocolate;
+            this.hash = ImmutableRecipe.hash(name, price, amtCoffee, amtMilk, amtSugar, amtChocolate);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Entry)) return false;
+            ImmutableRecipe r = ((Entry) obj).get();
+            return r != null && r.hasValues(name, price, amtCoffee, amtMilk, amtSugar, amtChocolate);
+        }
+    }
+}
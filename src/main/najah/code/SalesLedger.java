@@ -0,0 +1,306 @@
+package main.najah.code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Records recipe sales and keeps revenue totals, a top-K ranking and
+ * per-interval rollups up to date as sales come in.
+ * <p>
+ * Recording a sale adds to striped {@link LongAdder} counters for the recipe,
+ * for the whole ledger and for the current interval, so concurrent sellers do
+ * not contend. Queries read those aggregates and never look at individual
+ * sales. The top-K set only changes when a recipe outside it overtakes the
+ * smallest member, which is the only time recording takes a lock.
+ * <p>
+ * Revenue is counted in the same units as {@link Recipe#getPrice()}. Reads
+ * taken while sales are being recorded are approximate; they are exact once
+ * recording has stopped.
+ */
+public class SalesLedger {
+
+    private final int topK;
+    private final long intervalMillis;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, Totals> byRecipe = new ConcurrentHashMap<>();
+    private final LongAdder sales = new LongAdder();
+    private final LongAdder units = new LongAdder();
+    private final LongAdder revenue = new LongAdder();
+    private final AtomicReferenceArray<Interval> intervals;
+
+    private final Object topLock = new Object();
+    private volatile Totals[] top = new Totals[0];
+    private volatile long topThreshold = -1;
+
+    /**
+     * Creates a ledger ranking the top 10 recipes and keeping one-minute
+     * rollups for the last hour.
+     */
+    public SalesLedger() {
+        this(10, 60_000, 60, System::currentTimeMillis);
+    }
+
+    /**
+     * @param topK             number of recipes ranked by {@link #getTopRecipes(int)}
+     * @param intervalMillis   length of one rollup interval
+     * @param intervals        number of past intervals kept, including the current one
+     * @param clock            current time in milliseconds
+     */
+    public SalesLedger(int topK, long intervalMillis, int intervals, LongSupplier clock) {
+        if (topK <= 0) throw new IllegalArgumentException("Top-K size must be positive");
+        if (intervalMillis <= 0 || intervals <= 0) throw new IllegalArgumentException("Invalid rollup interval");
+        this.topK = topK;
+        this.intervalMillis = intervalMillis;
+        this.intervals = new AtomicReferenceArray<>(intervals);
+        this.clock = clock;
+    }
+
+    /**
+     * Records the sale of quantity units of a recipe at its current price.
+     * @param r
+     * @param quantity
+     */
+    public void record(Recipe r, int quantity) {
+        record(r.getName(), r.getPrice(), quantity);
+    }
+
+    /**
+     * Records the sale of quantity units of a recipe at its price.
+     * @param r
+     * @param quantity
+     */
+    public void record(ImmutableRecipe r, int quantity) {
+        record(r.getName(), r.getPrice(), quantity);
+    }
+
+    /**
+     * Records the sale of quantity units of the named recipe.
+     * @param name
+     * @param unitPrice
+     * @param quantity
+     */
+    public void record(String name, int unitPrice, int quantity) {
+        if (unitPrice < 0 || quantity <= 0) throw new IllegalArgumentException("Invalid sale");
+        long amount = (long) unitPrice * quantity;
+
+        Totals t = byRecipe.get(name);
+        if (t == null) t = byRecipe.computeIfAbsent(name, Totals::new);
+        t.add(quantity, amount);
+        sales.increment();
+        units.add(quantity);
+        revenue.add(amount);
+        current().add(quantity, amount);
+
+        if (!t.ranked && t.revenue.sum() > topThreshold) rank(t);
+    }
+
+    private Interval current() {
+        long epoch = clock.getAsLong() / intervalMillis;
+        int i = (int) Math.floorMod(epoch, (long) intervals.length());
+        for (;;) {
+            Interval in = intervals.get(i);
+            if (in != null && in.epoch >= epoch) return in;
+            Interval fresh = new Interval(epoch);
+            if (intervals.compareAndSet(i, in, fresh)) return fresh;
+        }
+    }
+
+    /** Admits t to the top-K set if it beats the smallest member. */
+    private void rank(Totals t) {
+        synchronized (topLock) {
+            if (t.ranked) return;
+            Totals[] members = top;
+            if (members.length < topK) {
+                Totals[] grown = Arrays.copyOf(members, members.length + 1);
+                grown[members.length] = t;
+                t.ranked = true;
+                publishTop(grown);
+                return;
+            }
+            int min = 0;
+            long minRevenue = Long.MAX_VALUE;
+            for (int i = 0; i < members.length; i++) {
+                long r = members[i].revenue.sum();
+                if (r < minRevenue) {
+                    min = i;
+                    minRevenue = r;
+                }
+            }
+            if (t.revenue.sum() > minRevenue) {
+                Totals[] swapped = members.clone();
+                swapped[min].ranked = false;
+                swapped[min] = t;
+                t.ranked = true;
+                publishTop(swapped);
+            } else {
+                topThreshold = minRevenue;
+            }
+        }
+    }
+
+    private void publishTop(Totals[] members) {
+        long min = members.length < topK ? -1 : Long.MAX_VALUE;
+        for (Totals m : members) min = Math.min(min, m.revenue.sum());
+        top = members;
+        topThreshold = min;
+    }
+
+    public long getSales() { return sales.sum(); }
+    public long getUnits() { return units.sum(); }
+    public long getRevenue() { return revenue.sum(); }
+
+    /**
+     * Returns the totals of one recipe.
+     * @param name
+     * @return RecipeSales, with all counts 0 if the recipe was never sold
+     */
+    public RecipeSales getRecipeSales(String name) {
+        Totals t = byRecipe.get(name);
+        return t == null ? new RecipeSales(name, 0, 0, 0) : t.snapshot();
+    }
+
+    /**
+     * Returns the totals of every recipe sold, by name.
+     * @return List of RecipeSales
+     */
+    public List<RecipeSales> getAllRecipeSales() {
+        List<RecipeSales> all = new ArrayList<>(byRecipe.size());
+        for (Totals t : byRecipe.values()) all.add(t.snapshot());
+        all.sort(Comparator.comparing(RecipeSales::getName));
+        return all;
+    }
+
+    /**
+     * Returns the k recipes with the highest revenue, highest first.
+     * @param k   at most the top-K size given to the constructor
+     * @return List of RecipeSales
+     */
+    public List<RecipeSales> getTopRecipes(int k) {
+        if (k < 0 || k > topK) throw new IllegalArgumentException("k must be between 0 and " + topK);
+        Totals[] members = top;
+        List<RecipeSales> ranked = new ArrayList<>(members.length);
+        for (Totals m : members) ranked.add(m.snapshot());
+        ranked.sort(Comparator.comparingLong(RecipeSales::getRevenue).reversed()
+            .thenComparing(RecipeSales::getName));
+        return ranked.subList(0, Math.min(k, ranked.size()));
+    }
+
+    /**
+     * Returns the rollups of the retained intervals that had sales, oldest
+     * first. The last one may still be in progress.
+     * @return List of Rollup
+     */
+    public List<Rollup> getRollups() {
+        long oldest = clock.getAsLong() / intervalMillis - intervals.length() + 1;
+        List<Rollup> rollups = new ArrayList<>();
+        for (int i = 0; i < intervals.length(); i++) {
+            Interval in = intervals.get(i);
+            if (in != null && in.epoch >= oldest) {
+                rollups.add(new Rollup(in.epoch * intervalMillis, intervalMillis,
+                    in.sales.sum(), in.units.sum(), in.revenue.sum()));
+            }
+        }
+        rollups.sort(Comparator.comparingLong(Rollup::getStartMillis));
+        return Collections.unmodifiableList(rollups);
+    }
+
+    private static final class Totals {
+        final String name;
+        final LongAdder sales = new LongAdder();
+        final LongAdder units = new LongAdder();
+        final LongAdder revenue = new LongAdder();
+        /** Written under the top-K lock. */
+        volatile boolean ranked;
+
+        Totals(String name) {
+            this.name = name;
+        }
+
+        void add(int quantity, long amount) {
+            sales.increment();
+            units.add(quantity);
+            revenue.add(amount);
+        }
+
+        RecipeSales snapshot() {
+            return new RecipeSales(name, sales.sum(), units.sum(), revenue.sum());
+        }
+    }
+
+    private static final class Interval {
+        final long epoch;
+        final LongAdder sales = new LongAdder();
+        final LongAdder units = new LongAdder();
+        final LongAdder revenue = new LongAdder();
+
+        Interval(long epoch) {
+            this.epoch = epoch;
+        }
+
+        void add(int quantity, long amount) {
+            sales.increment();
+            units.add(quantity);
+            revenue.add(amount);
+        }
+    }
+
+    /** Sales totals of one recipe. */
+    public static final class RecipeSales {
+        private final String name;
+        private final long sales;
+        private final long units;
+        private final long revenue;
+
+        RecipeSales(String name, long sales, long units, long revenue) {
+            this.name = name;
+            this.sales = sales;
+            this.units = units;
+            this.revenue = revenue;
+        }
+
+        public String getName() { return name; }
+        public long getSales() { return sales; }
+        public long getUnits() { return units; }
+        public long getRevenue() { return revenue; }
+
+        public String toString() {
+            return name + ": " + units + " sold, revenue " + revenue;
+        }
+    }
+
+    /** Sales totals of one rollup interval. */
+    public static final class Rollup {
+        private final long startMillis;
+        private final long lengthMillis;
+        private final long sales;
+        private final long units;
+        private final long revenue;
+
+        Rollup(long startMillis, long lengthMillis, long sales, long units, long revenue) {
+            this.startMillis = startMillis;
+            this.lengthMillis = lengthMillis;
+            this.sales = sales;
+            this.units = units;
+            this.revenue = revenue;
+        }
+
+        public long getStartMillis() { return startMillis; }
+        public long getLengthMillis() { return lengthMillis; }
+        public long getSales() { return sales; }
+        public long getUnits() { return units; }
+        public long getRevenue() { return revenue; }
+
+        public String toString() {
+            return "[" + startMillis + ", +" + lengthMillis + "ms) " + sales + " sales, " + units
+                + " units, revenue " + revenue;
+        }
+    }
+}
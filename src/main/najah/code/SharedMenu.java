@@ -0,0 +1,328 @@
+package main.najah.code;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * A menu shared between processes on one machine through a memory-mapped
+ * file.
+ * <p>
+ * One process {@link #create(Path, int) creates} the file and publishes its
+ * menu into it, usually by {@link #follow(RecipeBook) following} a
+ * {@link RecipeBook}; any number of processes {@link #open(Path) open} the
+ * same file and {@link #read()} the menu straight from the mapping, with no
+ * messaging in between. The owner holds an exclusive lock on the file, so
+ * there is only ever one writer.
+ * <p>
+ * Reads are lock-free and consistent through a sequence lock: the writer
+ * makes the sequence number odd, writes the slots and makes it even again,
+ * and a reader copies the slots and retries if the number was odd or changed
+ * meanwhile. A reader whose menu has not changed gets its previous snapshot
+ * back without decoding anything, and {@link #awaitChange(long, long, TimeUnit)}
+ * waits for the next version. A writer that dies in the middle of a publish
+ * leaves the sequence number odd; readers then give up after a timeout
+ * rather than wait for it forever.
+ * <p>
+ * Each slot holds the name, up to {@value #MAX_NAME_BYTES} UTF-8 bytes, the
+ * price and the four ingredient amounts of one recipe.
+ */
+public final class SharedMenu implements AutoCloseable {
+
+    /** Longest recipe name, in UTF-8 bytes, that fits in a slot */
+    public static final int MAX_NAME_BYTES = 104;
+
+    private static final int MAGIC = 0x534D4E55;
+    private static final int FORMAT = 1;
+    private static final int SEQ = 16;
+    private static final int DATA = 64;
+    private static final int SLOT = 128;
+    private static final int EMPTY = -1;
+    private static final long DEFAULT_READ_TIMEOUT_MILLIS = 1000;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final MappedByteBuffer buf;
+    private final int slots;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final byte[] copy;
+
+    private long cachedSeq = -1;
+    private List<ImmutableRecipe> cached;
+    private Consumer<List<ImmutableRecipe>> following;
+    private RecipeBook followed;
+    private long skipped;
+
+    private SharedMenu(MappedByteBuffer buf, int slots, FileChannel channel, FileLock lock) {
+        this.buf = buf;
+        this.slots = slots;
+        this.channel = channel;
+        this.lock = lock;
+        this.copy = new byte[slots * SLOT];
+    }
+
+    /**
+     * Creates or takes over a menu file as its only writer; the file stays
+     * locked until {@link #close()}.
+     * @param file
+     * @param slots   number of recipes in the menu
+     * @return SharedMenu
+     * @throws IOException if another process owns the file
+     */
+    public static SharedMenu create(Path file, int slots) throws IOException {
+        if (slots <= 0) throw new IllegalArgumentException("Menu must have at least one slot");
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            FileLock lock;
+            try {
+                lock = ch.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) throw new IOException("Menu " + file + " is owned by another writer");
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, DATA + (long) slots * SLOT);
+            // A reader that mapped the file earlier sees the sequence go odd
+            // first, then the new header and slots
+            long seq = buf.getInt(0) == MAGIC ? (long) LONGS.getVolatile(buf, SEQ) : 0;
+            LONGS.setVolatile(buf, SEQ, seq | 1);
+            buf.putInt(0, MAGIC).putInt(4, FORMAT).putInt(8, slots).putInt(12, SLOT);
+            for (int i = 0; i < slots; i++) buf.putInt(DATA + i * SLOT, EMPTY);
+            LONGS.setRelease(buf, SEQ, (seq | 1) + 1);
+            return new SharedMenu(buf, slots, ch, lock);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps a menu file for reading.
+     * @param file
+     * @return SharedMenu
+     * @throws IOException if the file is not a menu
+     */
+    public static SharedMenu open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < DATA) throw new IOException("Not a shared menu");
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, DATA);
+            if (header.getInt(0) != MAGIC || header.getInt(12) != SLOT) throw new IOException("Not a shared menu");
+            if (header.getInt(4) != FORMAT) throw new IOException("Unsupported menu format " + header.getInt(4));
+            int slots = header.getInt(8);
+            if (slots <= 0 || ch.size() < DATA + (long) slots * SLOT) throw new IOException("Truncated menu");
+            return new SharedMenu(ch.map(FileChannel.MapMode.READ_ONLY, 0, DATA + (long) slots * SLOT), slots,
+                null, null);
+        }
+    }
+
+    public int getSlots() { return slots; }
+
+    public boolean isWriter() { return lock != null; }
+
+    /**
+     * Returns the number of menus published so far. It changes exactly when
+     * the menu does, so readers can poll it cheaply.
+     * @return long
+     */
+    public long getVersion() {
+        return (long) LONGS.getAcquire(buf, SEQ) >>> 1;
+    }
+
+    /**
+     * Writes a menu; slots beyond its size are emptied and null entries are
+     * empty slots.
+     * @param menu
+     * @throws IllegalStateException if this process is not the writer
+     * @throws IllegalArgumentException if the menu has too many recipes or a name is too long
+     */
+    public synchronized void publish(List<ImmutableRecipe> menu) {
+        if (!isWriter()) throw new IllegalStateException("Menu was opened for reading");
+        if (menu.size() > slots) throw new IllegalArgumentException("Menu has more than " + slots + " recipes");
+        byte[][] names = new byte[menu.size()][];
+        for (int i = 0; i < names.length; i++) {
+            ImmutableRecipe r = menu.get(i);
+            if (r == null) continue;
+            names[i] = r.getName().getBytes(StandardCharsets.UTF_8);
+            if (names[i].length > MAX_NAME_BYTES) {
+                throw new IllegalArgumentException("Name of " + r.getName() + " is longer than " + MAX_NAME_BYTES
+                    + " bytes");
+            }
+        }
+
+        long seq = (long) LONGS.getVolatile(buf, SEQ);
+        LONGS.setVolatile(buf, SEQ, seq + 1);
+        VarHandle.storeStoreFence();
+        for (int i = 0; i < slots; i++) {
+            int at = DATA + i * SLOT;
+            ImmutableRecipe r = i < menu.size() ? menu.get(i) : null;
+            if (r == null) {
+                buf.putInt(at, EMPTY);
+                continue;
+            }
+            buf.putInt(at, names[i].length).putInt(at + 4, r.getPrice()).putInt(at + 8, r.getAmtCoffee())
+                .putInt(at + 12, r.getAmtMilk()).putInt(at + 16, r.getAmtSugar()).putInt(at + 20, r.getAmtChocolate());
+            buf.put(at + 24, names[i]);
+        }
+        LONGS.setRelease(buf, SEQ, seq + 2);
+    }
+
+    /**
+     * Publishes the book's menu now and after every change to it, until
+     * {@link #close()}. Recipes that do not fit, because their name is too
+     * long or they lie beyond the last slot, are left out and reported by
+     * {@link #getSkipped()}, so the book never fails because of the menu.
+     * @param book
+     */
+    public synchronized void follow(RecipeBook book) {
+        if (!isWriter()) throw new IllegalStateException("Menu was opened for reading");
+        if (followed != null) followed.removeMenuListener(following);
+        followed = book;
+        following = this::publishFitting;
+        book.addMenuListener(following);
+        publishFitting(book.getMenu());
+    }
+
+    private synchronized void publishFitting(List<ImmutableRecipe> menu) {
+        ImmutableRecipe[] fitting = new ImmutableRecipe[Math.min(menu.size(), slots)];
+        long left = 0;
+        for (int i = 0; i < menu.size(); i++) {
+            ImmutableRecipe r = menu.get(i);
+            if (r == null) continue;
+            if (i >= fitting.length || r.getName().getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+                left++;
+            } else {
+                fitting[i] = r;
+            }
+        }
+        publish(Arrays.asList(fitting));
+        skipped = left;
+    }
+
+    /**
+     * Returns the number of recipes of the followed book that the menu
+     * currently leaves out because they did not fit.
+     * @return long
+     */
+    public synchronized long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Returns a consistent snapshot of the menu, one entry per slot, with
+     * null for empty slots. Never blocks the writer; waits at most a second
+     * for one to finish publishing.
+     * @return List of ImmutableRecipe
+     * @see #read(long, TimeUnit)
+     */
+    public List<ImmutableRecipe> read() {
+        return read(DEFAULT_READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns a consistent snapshot of the menu, waiting at most the given
+     * time for the writer to finish publishing. If it does not, as when the
+     * writer died part way, the last snapshot read is returned again.
+     * @param timeout
+     * @param unit
+     * @return List of ImmutableRecipe
+     * @throws IllegalStateException if the time passed and nothing was read before
+     */
+    public synchronized List<ImmutableRecipe> read(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long seq;
+        for (int spins = 0;; spins++) {
+            seq = (long) LONGS.getAcquire(buf, SEQ);
+            if (seq == cachedSeq) return cached;
+            if ((seq & 1) == 0) {
+                buf.get(DATA, copy);
+                VarHandle.loadLoadFence();
+                if ((long) LONGS.getAcquire(buf, SEQ) == seq) break;
+            }
+            if (spins < 100) {
+                Thread.onSpinWait();
+            } else if (System.nanoTime() - deadline < 0) {
+                Thread.yield();
+            } else if (cached != null) {
+                return cached;
+            } else {
+                throw new IllegalStateException("Menu writer did not finish publishing within " + timeout + " "
+                    + unit.toString().toLowerCase(Locale.ROOT));
+            }
+        }
+        ImmutableRecipe[] recipes = new ImmutableRecipe[slots];
+        for (int i = 0; i < slots; i++) recipes[i] = decode(i * SLOT);
+        cached = Collections.unmodifiableList(Arrays.asList(recipes));
+        cachedSeq = seq;
+        return cached;
+    }
+
+    private ImmutableRecipe decode(int at) {
+        int length = intAt(at);
+        if (length == EMPTY) return null;
+        if (length < 0 || length > MAX_NAME_BYTES) throw new IllegalStateException("Corrupt menu slot at " + at);
+        try {
+            return RecipeInterner.shared().intern(ImmutableRecipe.builder()
+                .name(new String(copy, at + 24, length, StandardCharsets.UTF_8)).price(intAt(at + 4))
+                .amtCoffee(intAt(at + 8)).amtMilk(intAt(at + 12)).amtSugar(intAt(at + 16))
+                .amtChocolate(intAt(at + 20)).build());
+        } catch (RecipeException e) {
+            throw new IllegalStateException("Corrupt menu slot at " + at, e);
+        }
+    }
+
+    private int intAt(int at) {
+        return (copy[at] << 24) | ((copy[at + 1] & 0xFF) << 16) | ((copy[at + 2] & 0xFF) << 8) | (copy[at + 3] & 0xFF);
+    }
+
+    /**
+     * Waits until the menu's version is past the given one.
+     * @param version    a version returned by {@link #getVersion()}
+     * @param timeout
+     * @param unit
+     * @return the new version, or the old one if the timeout passed first
+     */
+    public long awaitChange(long version, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int spins = 0;
+        long current;
+        while ((current = getVersion()) == version) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return current;
+            if (++spins < 1000) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(Math.min(remaining, 50_000));
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Stops following a book and, for the writer, releases the file so
+     * another process can take it over. The mapping itself stays readable.
+     */
+    public synchronized void close() throws IOException {
+        if (followed != null) {
+            followed.removeMenuListener(following);
+            followed = null;
+        }
+        if (channel != null) channel.close();
+    }
+}
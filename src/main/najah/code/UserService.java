@@ -1,11 +1,27 @@
 package main.najah.code;
 
+import main.najah.metrics.Metric;
+import main.najah.metrics.Metrics;
+
 public class UserService {
+    private static final Metric AUTHENTICATE = Metrics.metric("UserService.authenticate");
+
     public boolean isValidEmail(String email) {
         return email != null && email.contains("@") && email.contains(".");
     }
 
+    /**
+     * Returns true for valid credentials. Rejected logins are counted as errors
+     * of the {@code UserService.authenticate} metric.
+     */
     public boolean authenticate(String username, String password) {
-        return "admin".equals(username) && "1234".equals(password);
+        long start = AUTHENTICATE.start();
+        boolean ok = "admin".equals(username) && "1234".equals(password);
+        if (ok) {
+            AUTHENTICATE.stop(start);
+        } else {
+            AUTHENTICATE.fail(start);
+        }
+        return ok;
     }
 }
@@ -0,0 +1,293 @@
+package main.najah.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import main.najah.code.UserService;
+
+/**
+ * Sorts a file of email addresses, one per line, into a file of valid and a
+ * file of invalid addresses.
+ * <p>
+ * A reader thread fills fixed-size blocks from a {@link FileChannel}, cuts
+ * them at the last line break and hands them to a pool of validators; the
+ * calling thread writes the results in input order. At most
+ * {@code 2 * parallelism} blocks are in flight, so memory use depends on the
+ * block size and parallelism only, never on the size of the input. Blank
+ * lines are skipped; every other line is checked with
+ * {@link UserService#isValidEmail(String)} unless another validator is given.
+ * <p>
+ * Usage: {@code java main.najah.ingest.EmailValidationPipeline input valid invalid};
+ * progress is printed every second.
+ */
+public class EmailValidationPipeline {
+
+    private static final String COLUMN = "email";
+    private static final String INVALID = "Invalid email";
+    /** Marks the end of the input in the queue of blocks in flight */
+    private static final Future<Block> END = CompletableFuture.completedFuture(null);
+
+    private final int blockSize;
+    private final int parallelism;
+    private final int maxErrors;
+    private final Predicate<String> validator;
+
+    /**
+     * Creates a pipeline reading 1 MB blocks, validating on one thread per
+     * processor with {@link UserService#isValidEmail(String)} and reporting
+     * the first 100 invalid addresses.
+     */
+    public EmailValidationPipeline() {
+        this(1 << 20, Runtime.getRuntime().availableProcessors(), 100, new UserService()::isValidEmail);
+    }
+
+    /**
+     * @param blockSize     bytes read at a time, also the longest line accepted
+     * @param parallelism   number of validator threads
+     * @param maxErrors     number of invalid addresses reported in detail
+     * @param validator     returns true for a valid address; called from several threads
+     */
+    public EmailValidationPipeline(int blockSize, int parallelism, int maxErrors, Predicate<String> validator) {
+        if (blockSize <= 0 || parallelism <= 0 || maxErrors < 0) {
+            throw new IllegalArgumentException("Invalid pipeline configuration");
+        }
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+        this.maxErrors = maxErrors;
+        this.validator = validator;
+    }
+
+    /**
+     * Validates every address in the input.
+     * @param input
+     * @param valid     created or replaced with the valid addresses
+     * @param invalid   created or replaced with the invalid addresses
+     * @return IngestReport
+     */
+    public IngestReport run(Path input, Path valid, Path invalid) throws IOException {
+        return run(input, valid, invalid, report -> { }, Long.MAX_VALUE);
+    }
+
+    /**
+     * Validates every address in the input, reporting progress while it runs.
+     * @param input
+     * @param valid            created or replaced with the valid addresses
+     * @param invalid          created or replaced with the invalid addresses
+     * @param progress         receives a report of the work so far, on the calling thread
+     * @param progressMillis   minimum time between two progress reports
+     * @return IngestReport
+     */
+    public IngestReport run(Path input, Path valid, Path invalid, Consumer<IngestReport> progress,
+            long progressMillis) throws IOException {
+        long begin = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        BlockingQueue<Future<Block>> inFlight = new ArrayBlockingQueue<>(2 * parallelism);
+        Thread reader = null;
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                FileChannel validOut = open(valid);
+                FileChannel invalidOut = open(invalid)) {
+            reader = new Thread(() -> read(in, pool, inFlight), "email-reader");
+            reader.setDaemon(true);
+            reader.start();
+
+            Totals totals = new Totals();
+            long nextProgress = begin + progressMillis * 1_000_000L;
+            for (;;) {
+                Future<Block> f = take(inFlight);
+                if (f == END) break;
+                Block b = get(f);
+                write(validOut, b.valid, b.validLength);
+                write(invalidOut, b.invalid, b.invalidLength);
+                totals.add(b, maxErrors);
+                long now = System.nanoTime();
+                if (progressMillis != Long.MAX_VALUE && now - nextProgress >= 0) {
+                    progress.accept(totals.report(now - begin));
+                    nextProgress = now + progressMillis * 1_000_000L;
+                }
+            }
+            return totals.report(System.nanoTime() - begin);
+        } finally {
+            if (reader != null) reader.interrupt();
+            pool.shutdownNow();
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /** Runs on the reader thread: cuts the input into blocks of whole lines. */
+    private void read(FileChannel in, ExecutorService pool, BlockingQueue<Future<Block>> inFlight) {
+        try {
+            ByteBuffer buf = ByteBuffer.allocate(blockSize);
+            long offset = 0;
+            boolean eof = false;
+            while (!eof) {
+                eof = in.read(buf) < 0;
+                if (!eof && buf.hasRemaining()) continue;
+                int end = buf.position();
+                if (!eof) {
+                    while (end > 0 && buf.get(end - 1) != '\n') end--;
+                    if (end == 0) {
+                        throw new IllegalArgumentException("Line at offset " + offset + " is longer than "
+                            + blockSize + " bytes");
+                    }
+                }
+                if (end > 0) {
+                    byte[] data = new byte[end];
+                    buf.get(0, data);
+                    inFlight.put(pool.submit(() -> validate(data)));
+                    offset += end;
+                }
+                buf.limit(buf.position()).position(end);
+                buf.compact();
+            }
+            inFlight.put(END);
+        } catch (InterruptedException e) {
+            // The writer has stopped
+        } catch (Throwable t) {
+            CompletableFuture<Block> failed = new CompletableFuture<>();
+            failed.completeExceptionally(t);
+            try {
+                inFlight.put(failed);
+            } catch (InterruptedException e) {
+                // The writer has stopped
+            }
+        }
+    }
+
+    /** Runs on a validator thread. */
+    private Block validate(byte[] data) {
+        Block b = new Block(data.length);
+        int p = 0;
+        while (p < data.length) {
+            int eol = p;
+            while (eol < data.length && data[eol] != '\n') eol++;
+            b.lines++;
+            int stop = eol > p && data[eol - 1] == '\r' ? eol - 1 : eol;
+            if (stop > p) {
+                String email = new String(data, p, stop - p, StandardCharsets.UTF_8);
+                if (validator.test(email)) {
+                    b.validLength = append(b.valid, b.validLength, data, p, stop);
+                } else {
+                    b.invalidLength = append(b.invalid, b.invalidLength, data, p, stop);
+                    b.rejected++;
+                    if (b.errors.size() < maxErrors) {
+                        b.errors.add(new IngestReport.RowError(b.lines, COLUMN, email, INVALID));
+                    }
+                }
+                b.records++;
+            }
+            p = eol + 1;
+        }
+        return b;
+    }
+
+    private static int append(byte[] into, int length, byte[] data, int from, int to) {
+        System.arraycopy(data, from, into, length, to - from);
+        into[length + to - from] = '\n';
+        return length + to - from + 1;
+    }
+
+    private static void write(FileChannel out, byte[] data, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(data, 0, length);
+        while (buf.hasRemaining()) out.write(buf);
+    }
+
+    private static Future<Block> take(BlockingQueue<Future<Block>> queue) throws IOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while validating", e);
+        }
+    }
+
+    private static Block get(Future<Block> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while validating", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /** The sorted lines of one block, with line numbers local to it. */
+    private static final class Block {
+        final byte[] valid;
+        final byte[] invalid;
+        int validLength;
+        int invalidLength;
+        int lines;
+        long records;
+        long rejected;
+        final List<IngestReport.RowError> errors = new ArrayList<>();
+        final long bytes;
+
+        Block(int size) {
+            // One more byte each for a last line without a line break
+            this.valid = new byte[size + 1];
+            this.invalid = new byte[size + 1];
+            this.bytes = size;
+        }
+    }
+
+    /** Running totals, kept by the writing thread. */
+    private static final class Totals {
+        long lines;
+        long records;
+        long rejected;
+        long bytes;
+        final List<IngestReport.RowError> errors = new ArrayList<>();
+
+        void add(Block b, int maxErrors) {
+            for (IngestReport.RowError e : b.errors) {
+                if (errors.size() == maxErrors) break;
+                errors.add(new IngestReport.RowError(lines + e.getLine(), e.getColumn(), e.getValue(), e.getMessage()));
+            }
+            lines += b.lines;
+            records += b.records;
+            rejected += b.rejected;
+            bytes += b.bytes;
+        }
+
+        IngestReport report(long elapsedNanos) {
+            return new IngestReport(records, rejected, bytes, elapsedNanos,
+                rejected == 0 ? Collections.emptyMap() : Collections.singletonMap(COLUMN, rejected),
+                new ArrayList<>(errors));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) throw new IllegalArgumentException("Usage: EmailValidationPipeline <input> <valid> <invalid>");
+        IngestReport report = new EmailValidationPipeline().run(Paths.get(args[0]), Paths.get(args[1]),
+            Paths.get(args[2]), r -> System.out.println(String.format(Locale.ROOT, "%,d addresses, %,d invalid, %,.1f MB/s",
+                r.getRecords(), r.getRejected(), r.getMegabytesPerSec())), 1000);
+        System.out.print(report);
+    }
+}
@@ -0,0 +1,79 @@
+package main.najah.ingest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of one bulk ingest: how many records were accepted and rejected,
+ * rejections per column and the first few rejections in detail.
+ */
+public class IngestReport {
+    private final long records;
+    private final long rejected;
+    private final long bytes;
+    private final long elapsedNanos;
+    private final Map<String, Long> errorsByColumn;
+    private final List<RowError> errors;
+
+    public IngestReport(long records, long rejected, long bytes, long elapsedNanos,
+            Map<String, Long> errorsByColumn, List<RowError> errors) {
+        this.records = records;
+        this.rejected = rejected;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.errorsByColumn = Collections.unmodifiableMap(errorsByColumn);
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    public long getRecords() { return records; }
+    public long getAccepted() { return records - rejected; }
+    public long getRejected() { return rejected; }
+    public long getBytes() { return bytes; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /** Number of invalid values per column; a record can count in several. */
+    public Map<String, Long> getErrorsByColumn() { return errorsByColumn; }
+
+    /** The first rejections, in input order. */
+    public List<RowError> getErrors() { return errors; }
+
+    public double getMegabytesPerSec() {
+        return elapsedNanos == 0 ? 0 : bytes / 1e6 / (elapsedNanos / 1e9);
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+            "%d records, %d accepted, %d rejected, %,.1f MB/s %s%n",
+            records, getAccepted(), rejected, getMegabytesPerSec(), errorsByColumn));
+        for (RowError e : errors) sb.append("  ").append(e).append(String.format("%n"));
+        return sb.toString();
+    }
+
+    /** One rejected value. */
+    public static final class RowError {
+        private final long line;
+        private final String column;
+        private final String value;
+        private final String message;
+
+        public RowError(long line, String column, String value, String message) {
+            this.line = line;
+            this.column = column;
+            this.value = value;
+            this.message = message;
+        }
+
+        /** 1-based line number in the input. */
+        public long getLine() { return line; }
+        public String getColumn() { return column; }
+        public String getValue() { return value; }
+        public String getMessage() { return message; }
+
+        public String toString() {
+            return "line " + line + (column.isEmpty() ? "" : ", " + column) + ": " + message
+                + (value == null ? "" : " ('" + value + "')");
+        }
+    }
+}
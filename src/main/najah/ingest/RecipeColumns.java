@@ -0,0 +1,62 @@
+package main.najah.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import main.najah.code.ImmutableRecipe;
+import main.najah.code.RecipeException;
+
+/**
+ * The valid rows of one chunk of a recipe feed, stored column by column.
+ * Every amount has already passed the same checks as the {@code Recipe}
+ * setters.
+ */
+public final class RecipeColumns {
+    private final String[] names;
+    private final int[] price;
+    private final int[] amtCoffee;
+    private final int[] amtMilk;
+    private final int[] amtSugar;
+    private final int[] amtChocolate;
+
+    RecipeColumns(String[] names, int[] price, int[] amtCoffee, int[] amtMilk, int[] amtSugar, int[] amtChocolate) {
+        this.names = names;
+        this.price = price;
+        this.amtCoffee = amtCoffee;
+        this.amtMilk = amtMilk;
+        this.amtSugar = amtSugar;
+        this.amtChocolate = amtChocolate;
+    }
+
+    public int size() { return names.length; }
+    public String getName(int row) { return names[row]; }
+    public int getPrice(int row) { return price[row]; }
+    public int getAmtCoffee(int row) { return amtCoffee[row]; }
+    public int getAmtMilk(int row) { return amtMilk[row]; }
+    public int getAmtSugar(int row) { return amtSugar[row]; }
+    public int getAmtChocolate(int row) { return amtChocolate[row]; }
+
+    /**
+     * Returns one row as a recipe.
+     * @param row
+     * @return ImmutableRecipe
+     */
+    public ImmutableRecipe toRecipe(int row) {
+        try {
+            return ImmutableRecipe.builder().name(names[row]).price(price[row]).amtCoffee(amtCoffee[row])
+                .amtMilk(amtMilk[row]).amtSugar(amtSugar[row]).amtChocolate(amtChocolate[row]).build();
+        } catch (RecipeException e) {
+            throw new IllegalStateException("Row " + row + " was validated", e);
+        }
+    }
+
+    /**
+     * Returns every row as a recipe.
+     * @return List of ImmutableRecipe
+     */
+    public List<ImmutableRecipe> toRecipes() {
+        List<ImmutableRecipe> recipes = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) recipes.add(toRecipe(i));
+        return recipes;
+    }
+}
@@ -0,0 +1,469 @@
+package main.najah.ingest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import main.najah.code.RecipeException;
+
+/**
+ * Validates recipe CSV feeds in bulk, without creating a {@code Recipe} per
+ * row.
+ * <p>
+ * The input is read through a {@link ByteBuffer}, memory-mapped in the case
+ * of a file, and split into chunks at line boundaries that are parsed in
+ * parallel. Amounts are parsed straight from the bytes into one int array
+ * per column, and each column is then validated in a single pass with the
+ * same rules as {@code Recipe.setAmtCoffee} and the other setters. The valid
+ * rows of every chunk are handed to the sink as {@link RecipeColumns}; the
+ * rejected ones are counted per column, and the first few are reported with
+ * their line numbers and the messages of {@link RecipeException.Ingredient}.
+ * <p>
+ * The first line must be a header naming at least the columns {@code name},
+ * {@code price}, {@code coffee}, {@code milk}, {@code sugar} and
+ * {@code chocolate} (the amounts may also be written {@code amtCoffee} and so
+ * on), in any order and case; other columns are ignored. Fields may be
+ * quoted, with {@code ""} for a quote, but may not contain line breaks.
+ */
+public class RecipeCsvIngester {
+
+    /** Longest line accepted, in bytes */
+    static final int MAX_LINE = 1 << 16;
+    /** Recently decoded names remembered per chunk, a power of two */
+    private static final int NAME_CACHE = 256;
+
+    private static final String[] COLUMNS = { "name", "price", "coffee", "milk", "sugar", "chocolate" };
+    private static final RecipeException.Ingredient[] INGREDIENTS = {
+        RecipeException.Ingredient.PRICE, RecipeException.Ingredient.COFFEE, RecipeException.Ingredient.MILK,
+        RecipeException.Ingredient.SUGAR, RecipeException.Ingredient.CHOCOLATE };
+
+    private final int chunkSize;
+    private final int parallelism;
+    private final int maxErrors;
+
+    /**
+     * Creates an ingester reading 32 MB chunks on one thread per processor
+     * and reporting the first 100 rejections.
+     */
+    public RecipeCsvIngester() {
+        this(32 << 20, Runtime.getRuntime().availableProcessors(), 100);
+    }
+
+    /**
+     * @param chunkSize     bytes per chunk
+     * @param parallelism   number of chunks parsed at the same time
+     * @param maxErrors     number of rejections reported in detail
+     */
+    public RecipeCsvIngester(int chunkSize, int parallelism, int maxErrors) {
+        if (chunkSize <= 0 || parallelism <= 0 || maxErrors < 0) {
+            throw new IllegalArgumentException("Invalid ingester configuration");
+        }
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxErrors = maxErrors;
+    }
+
+    /** A read-only view of part of the input. */
+    private interface Region {
+        ByteBuffer view(long from, long to) throws IOException;
+    }
+
+    /**
+     * Ingests a CSV file, mapping it into memory chunk by chunk.
+     * @param file
+     * @param sink   receives the valid rows of each chunk, from several threads at once
+     * @return IngestReport
+     */
+    public IngestReport ingest(Path file, Consumer<RecipeColumns> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return ingest(channel.size(), (from, to) -> channel.map(FileChannel.MapMode.READ_ONLY, from, to - from), sink);
+        }
+    }
+
+    /**
+     * Ingests the remaining bytes of a buffer, leaving its position unchanged.
+     * @param data
+     * @param sink   receives the valid rows of each chunk, from several threads at once
+     * @return IngestReport
+     */
+    public IngestReport ingest(ByteBuffer data, Consumer<RecipeColumns> sink) {
+        ByteBuffer input = data.duplicate();
+        int base = input.position();
+        try {
+            return ingest(input.remaining(),
+                (from, to) -> input.duplicate().limit(base + (int) to).position(base + (int) from).slice(), sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private IngestReport ingest(long size, Region region, Consumer<RecipeColumns> sink) throws IOException {
+        long begin = System.nanoTime();
+        ByteBuffer head = region.view(0, Math.min(size, MAX_LINE));
+        int headerEnd = lineEnd(head, 0, head.limit());
+        if (headerEnd == head.limit() && size > head.limit()) {
+            throw new IllegalArgumentException("Header line is longer than " + MAX_LINE + " bytes");
+        }
+        int[] columnOf = header(decode(head, 0, headerEnd));
+
+        long dataStart = Math.min(size, headerEnd + 1L);
+        int chunks = (int) Math.max(1, (size - dataStart + chunkSize - 1) / chunkSize);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, chunks));
+        try {
+            List<Future<Chunk>> futures = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                long from = dataStart + (long) i * chunkSize;
+                long to = Math.min(size, from + chunkSize);
+                boolean first = i == 0;
+                futures.add(pool.submit(() -> new Chunk(columnOf, maxErrors).parse(region, size, from, to, first, sink)));
+            }
+
+            long records = 0;
+            long rejected = 0;
+            long[] errorCounts = new long[COLUMNS.length];
+            List<IngestReport.RowError> errors = new ArrayList<>();
+            long lineBase = 1;
+            for (Future<Chunk> f : futures) {
+                Chunk c = get(f);
+                records += c.rows;
+                rejected += c.rejected;
+                for (int col = 0; col < COLUMNS.length; col++) errorCounts[col] += c.errorCounts[col];
+                for (IngestReport.RowError e : c.errors) {
+                    if (errors.size() == maxErrors) break;
+                    errors.add(new IngestReport.RowError(lineBase + e.getLine(), e.getColumn(), e.getValue(), e.getMessage()));
+                }
+                lineBase += c.lines;
+            }
+            Map<String, Long> byColumn = new LinkedHashMap<>();
+            for (int col = 0; col < COLUMNS.length; col++) {
+                if (errorCounts[col] > 0) byColumn.put(COLUMNS[col], errorCounts[col]);
+            }
+            return new IngestReport(records, rejected, size, System.nanoTime() - begin, byColumn, errors);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Chunk get(Future<Chunk> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while ingesting", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Usage: {@code java main.najah.ingest.RecipeCsvIngester feed.csv}; prints
+     * the report.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) throw new IllegalArgumentException("Usage: RecipeCsvIngester <file.csv>");
+        System.out.print(new RecipeCsvIngester().ingest(Paths.get(args[0]), columns -> { }));
+    }
+
+    /** Maps each header field to its index in COLUMNS, or -1. */
+    private static int[] header(String line) {
+        if (line.startsWith("\uFEFF")) line = line.substring(1);
+        if (line.endsWith("\r")) line = line.substring(0, line.length() - 1);
+        String[] fields = line.split(",", -1);
+        int[] columnOf = new int[fields.length];
+        boolean[] found = new boolean[COLUMNS.length];
+        for (int f = 0; f < fields.length; f++) {
+            String name = fields[f].trim().replace("\"", "").toLowerCase(Locale.ROOT);
+            if (name.startsWith("amt")) name = name.substring(3);
+            columnOf[f] = Arrays.asList(COLUMNS).indexOf(name);
+            if (columnOf[f] >= 0) {
+                if (found[columnOf[f]]) throw new IllegalArgumentException("Duplicate column " + COLUMNS[columnOf[f]]);
+                found[columnOf[f]] = true;
+            }
+        }
+        for (int c = 0; c < COLUMNS.length; c++) {
+            if (!found[c]) throw new IllegalArgumentException("Missing column " + COLUMNS[c]);
+        }
+        return columnOf;
+    }
+
+    /** Returns the index of the next '\n' at or after from, or limit. */
+    static int lineEnd(ByteBuffer buf, int from, int limit) {
+        int i = from;
+        while (i < limit && buf.get(i) != '\n') i++;
+        return i;
+    }
+
+    private static String decode(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses an amount from the bytes in [from, to) with the rules of the
+     * Recipe setters.
+     * @return int the amount, or -1 if it is not a non-negative integer
+     */
+    static int parseAmount(ByteBuffer buf, int from, int to) {
+        if (from >= to) return -1;
+        int i = from;
+        boolean negative = false;
+        byte first = buf.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (to - from == 1) return -1;
+            i++;
+        }
+        int result = 0;
+        for (; i < to; i++) {
+            byte b = buf.get(i);
+            if (b < 0) return parseUnicode(decode(buf, from, to));
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || result > (Integer.MAX_VALUE - digit) / 10) return -1;
+            result = result * 10 + digit;
+        }
+        return negative && result != 0 ? -1 : result;
+    }
+
+    /** Non-ASCII input: digits of other scripts are accepted like the setters do. */
+    private static int parseUnicode(String value) {
+        try {
+            int v = Integer.parseInt(value);
+            return v >= 0 ? v : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Finds the field starting at p and stores its content bounds and whether
+     * it was quoted in bounds.
+     * @return int the index of the ',' ending the field, or stop
+     */
+    static int nextField(ByteBuffer buf, int p, int stop, int[] bounds) {
+        if (p < stop && buf.get(p) == '"') {
+            bounds[0] = ++p;
+            while (p < stop) {
+                if (buf.get(p) == '"') {
+                    if (p + 1 < stop && buf.get(p + 1) == '"') {
+                        p += 2;
+                        continue;
+                    }
+                    break;
+                }
+                p++;
+            }
+            bounds[1] = p;
+            bounds[2] = 1;
+            while (p < stop && buf.get(p) != ',') p++;
+        } else {
+            bounds[0] = p;
+            while (p < stop && buf.get(p) != ',') p++;
+            bounds[1] = p;
+            bounds[2] = 0;
+        }
+        return p;
+    }
+
+    /** Parses and validates the lines that start within one chunk. */
+    private static final class Chunk {
+        private final int[] columnOf;
+        private final int maxErrors;
+
+        int lines;
+        int rows;
+        long rejected;
+        final long[] errorCounts = new long[COLUMNS.length];
+        final List<IngestReport.RowError> errors = new ArrayList<>();
+
+        private final byte[][] nameKeys = new byte[NAME_CACHE][];
+        private final String[] nameValues = new String[NAME_CACHE];
+        private String[] names = new String[1024];
+        private final int[][] amounts = new int[INGREDIENTS.length][1024];
+        private int[] lineNo = new int[1024];
+        private int[] lineStart = new int[1024];
+        private int[] lineStop = new int[1024];
+
+        Chunk(int[] columnOf, int maxErrors) {
+            this.columnOf = columnOf;
+            this.maxErrors = maxErrors;
+        }
+
+        Chunk parse(Region region, long size, long from, long to, boolean first, Consumer<RecipeColumns> sink)
+                throws IOException {
+            long viewFrom = first ? from : from - 1;
+            long viewTo = Math.min(size, to + MAX_LINE);
+            ByteBuffer buf = region.view(viewFrom, viewTo);
+            int limit = buf.limit();
+            int end = (int) (to - viewFrom);
+            int p = (int) (from - viewFrom);
+            if (!first) {
+                while (p < limit && buf.get(p - 1) != '\n') p++;
+            }
+            while (p < end) {
+                int eol = lineEnd(buf, p, limit);
+                if (eol == limit && viewTo < size) {
+                    throw new IllegalArgumentException("Line at offset " + (viewFrom + p) + " is longer than "
+                        + MAX_LINE + " bytes");
+                }
+                lines++;
+                int stop = eol > p && buf.get(eol - 1) == '\r' ? eol - 1 : eol;
+                if (stop > p) parseRow(buf, p, stop);
+                p = eol + 1;
+            }
+            validate(buf, sink);
+            // Only the counts and errors outlive the chunk
+            names = null;
+            Arrays.fill(amounts, null);
+            lineNo = lineStart = lineStop = null;
+            return this;
+        }
+
+        private void parseRow(ByteBuffer buf, int start, int stop) {
+            if (rows == names.length) grow();
+            int r = rows++;
+            lineNo[r] = lines;
+            lineStart[r] = start;
+            lineStop[r] = stop;
+            names[r] = null;
+            for (int[] column : amounts) column[r] = -1;
+
+            int[] bounds = new int[3];
+            int p = start;
+            for (int field = 0; ; field++) {
+                p = nextField(buf, p, stop, bounds);
+                int column = field < columnOf.length ? columnOf[field] : -1;
+                if (column == 0) {
+                    names[r] = bounds[2] != 0
+                        ? decode(buf, bounds[0], bounds[1]).replace("\"\"", "\"")
+                        : name(buf, bounds[0], bounds[1]);
+                } else if (column > 0) {
+                    amounts[column - 1][r] = parseAmount(buf, bounds[0], bounds[1]);
+                }
+                if (p >= stop) break;
+                p++;
+            }
+        }
+
+        /**
+         * Decodes an unquoted name, reusing the String of an earlier row with
+         * the same bytes. Feeds repeat a few names many times, so most rows
+         * allocate nothing here.
+         */
+        private String name(ByteBuffer buf, int from, int to) {
+            int h = to - from;
+            for (int i = from; i < to; i++) h = 31 * h + buf.get(i);
+            int slot = (h ^ h >>> 16) & NAME_CACHE - 1;
+            byte[] key = nameKeys[slot];
+            if (key != null && key.length == to - from && startsWith(buf, from, key)) return nameValues[slot];
+            byte[] bytes = new byte[to - from];
+            buf.get(from, bytes);
+            String name = new String(bytes, StandardCharsets.UTF_8);
+            nameKeys[slot] = bytes;
+            nameValues[slot] = name;
+            return name;
+        }
+
+        private static boolean startsWith(ByteBuffer buf, int from, byte[] key) {
+            for (int i = 0; i < key.length; i++) {
+                if (buf.get(from + i) != key[i]) return false;
+            }
+            return true;
+        }
+
+        private void grow() {
+            int n = names.length * 2;
+            names = Arrays.copyOf(names, n);
+            for (int c = 0; c < amounts.length; c++) amounts[c] = Arrays.copyOf(amounts[c], n);
+            lineNo = Arrays.copyOf(lineNo, n);
+            lineStart = Arrays.copyOf(lineStart, n);
+            lineStop = Arrays.copyOf(lineStop, n);
+        }
+
+        /** Checks one column at a time, then hands the valid rows to the sink. */
+        private void validate(ByteBuffer buf, Consumer<RecipeColumns> sink) {
+            boolean[] bad = new boolean[rows];
+            for (int i = 0; i < rows; i++) {
+                if (names[i] == null) {
+                    bad[i] = true;
+                    errorCounts[0]++;
+                }
+            }
+            for (int c = 0; c < amounts.length; c++) {
+                int[] column = amounts[c];
+                long invalid = 0;
+                for (int i = 0; i < rows; i++) {
+                    if (column[i] < 0) {
+                        bad[i] = true;
+                        invalid++;
+                    }
+                }
+                errorCounts[c + 1] += invalid;
+            }
+
+            int valid = 0;
+            for (int i = 0; i < rows; i++) {
+                if (bad[i]) {
+                    rejected++;
+                    if (errors.size() < maxErrors) describe(buf, i);
+                } else {
+                    valid++;
+                }
+            }
+            if (valid == 0) return;
+
+            String[] n = new String[valid];
+            int[][] a = new int[amounts.length][valid];
+            for (int i = 0, j = 0; i < rows; i++) {
+                if (bad[i]) continue;
+                n[j] = names[i];
+                for (int c = 0; c < amounts.length; c++) a[c][j] = amounts[c][i];
+                j++;
+            }
+            sink.accept(new RecipeColumns(n, a[0], a[1], a[2], a[3], a[4]));
+        }
+
+        /** Records the errors of one rejected row, with line numbers local to the chunk. */
+        private void describe(ByteBuffer buf, int row) {
+            String[] fields = new String[columnOf.length];
+            int[] bounds = new int[3];
+            for (int f = 0, p = lineStart[row]; f < fields.length; f++) {
+                p = nextField(buf, p, lineStop[row], bounds);
+                fields[f] = decode(buf, bounds[0], bounds[1]);
+                if (p >= lineStop[row]) break;
+                p++;
+            }
+            if (names[row] == null) {
+                errors.add(new IngestReport.RowError(lineNo[row], COLUMNS[0], null, "Missing name"));
+            }
+            for (int c = 0; c < amounts.length && errors.size() < maxErrors; c++) {
+                if (amounts[c][row] >= 0) continue;
+                String value = null;
+                for (int f = 0; f < fields.length; f++) {
+                    if (columnOf[f] == c + 1) value = fields[f];
+                }
+                errors.add(new IngestReport.RowError(lineNo[row], COLUMNS[c + 1], value, INGREDIENTS[c].getMessage()));
+            }
+        }
+    }
+}
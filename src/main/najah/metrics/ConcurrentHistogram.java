@@ -0,0 +1,50 @@
+package main.najah.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency histogram with the same buckets as {@link LatencyHistogram}.
+ * Recording is one atomic increment on the value's bucket; reading goes through
+ * {@link #snapshot()}.
+ */
+public class ConcurrentHistogram {
+
+    private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one latency in nanoseconds.
+     * @param nanos
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, Math.min(nanos, LatencyHistogram.MAX_VALUE));
+        counts.incrementAndGet(LatencyHistogram.index(v));
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Returns a copy of the values recorded so far. Values recorded while the
+     * copy is taken may or may not be included.
+     * @return LatencyHistogram
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < counts.length(); i++) {
+            long c = counts.get(i);
+            if (c != 0) h.addBucket(i, c);
+        }
+        h.setTotals(sum.sum(), max.get());
+        return h;
+    }
+
+    /** Clears all recorded values. */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        sum.reset();
+        max.reset();
+    }
+}
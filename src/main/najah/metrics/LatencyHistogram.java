@@ -0,0 +1,108 @@
+package main.najah.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of latencies in nanoseconds, in the style of HdrHistogram.
+ * <p>
+ * Values below 256 are counted exactly; above that every power of two is split
+ * into 128 equal buckets, so any recorded value is reported within 1% of its
+ * true value while the whole range up to about 36 minutes fits in a few thousand
+ * counters. Instances are not thread-safe: record into one histogram per thread
+ * and {@link #add(LatencyHistogram) merge} them afterwards, or use
+ * {@link ConcurrentHistogram} and take snapshots.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 33;
+    static final long MAX_VALUE = (2L * SUB_COUNT << MAX_SHIFT) - 1;
+    static final int BUCKETS = (MAX_SHIFT + 2) * SUB_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long max;
+    private double sum;
+
+    /**
+     * Records one latency. Negative values count as zero and values beyond the
+     * range are clamped to the largest bucket.
+     * @param nanos
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts[index(v)]++;
+        total++;
+        sum += v;
+        if (v > max) max = v;
+    }
+
+    /**
+     * Adds every value recorded in other to this histogram.
+     * @param other
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        total += other.total;
+        sum += other.sum;
+        if (other.max > max) max = other.max;
+    }
+
+    /**
+     * Adds count values to one bucket, used to build snapshots.
+     */
+    void addBucket(int index, long count) {
+        counts[index] += count;
+        total += count;
+    }
+
+    void setTotals(double sum, long max) {
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /** Clears all recorded values. */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    public long getCount() { return total; }
+    public long getMax() { return max; }
+
+    public double getMean() {
+        return total == 0 ? 0 : sum / total;
+    }
+
+    /**
+     * Returns the smallest bucket value at or below which the given percentage
+     * of recorded values fall.
+     * @param percentile   between 0 and 100
+     * @return long nanoseconds, 0 when nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Invalid percentile");
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(highestEquivalent(i), max);
+        }
+        return max;
+    }
+
+    static int index(long v) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(v) - SUB_BITS);
+        return (shift << SUB_BITS) + (int) (v >>> shift);
+    }
+
+    private static long highestEquivalent(int index) {
+        int shift = Math.max(0, (index >> SUB_BITS) - 1);
+        long sub = index - ((long) shift << SUB_BITS);
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,89 @@
+package main.najah.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count and latency of one instrumented operation.
+ * <p>
+ * Instrumented code brackets the operation with {@link #start()} and
+ * {@link #stop(long)} or {@link #fail(long)}:
+ * <pre>
+ * long start = ADD.start();
+ * ...
+ * ADD.stop(start);
+ * </pre>
+ * {@code start()} returns 0 while metrics are disabled, and the matching
+ * {@code stop} or {@code fail} then records nothing.
+ */
+public final class Metric {
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final ConcurrentHistogram latency = new ConcurrentHistogram();
+
+    Metric(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the start time of a call, or 0 when metrics are disabled.
+     * @return long
+     */
+    public long start() {
+        return Metrics.enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a successful call.
+     * @param start   value returned by {@link #start()}
+     * @return long the current time, or 0 when nothing was recorded
+     */
+    public long stop(long start) {
+        return record(start, false);
+    }
+
+    /**
+     * Records a failed call.
+     * @param start   value returned by {@link #start()}
+     * @return long the current time, or 0 when nothing was recorded
+     */
+    public long fail(long start) {
+        return record(start, true);
+    }
+
+    private long record(long start, boolean failed) {
+        if (start == 0) return 0;
+        long now = System.nanoTime();
+        long nanos = now - start;
+        calls.increment();
+        if (failed) errors.increment();
+        latency.record(nanos);
+        OperationEvent event = new OperationEvent();
+        if (event.isEnabled()) {
+            event.operation = name;
+            event.failed = failed;
+            event.latency = nanos;
+            event.commit();
+        }
+        return now;
+    }
+
+    /**
+     * Returns the current values of this metric.
+     * @return MetricSnapshot
+     */
+    public MetricSnapshot snapshot() {
+        return new MetricSnapshot(name, calls.sum(), errors.sum(), latency.snapshot());
+    }
+
+    void reset() {
+        calls.reset();
+        errors.reset();
+        latency.reset();
+    }
+}
@@ -0,0 +1,30 @@
+package main.najah.metrics;
+
+import java.util.Locale;
+
+/**
+ * Values of one {@link Metric} at the time {@link Metric#snapshot()} was called.
+ */
+public final class MetricSnapshot {
+    private final String name;
+    private final long calls;
+    private final long errors;
+    private final LatencyHistogram latency;
+
+    public MetricSnapshot(String name, long calls, long errors, LatencyHistogram latency) {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.latency = latency;
+    }
+
+    public String getName() { return name; }
+    public long getCalls() { return calls; }
+    public long getErrors() { return errors; }
+    public LatencyHistogram getLatency() { return latency; }
+
+    public String toString() {
+        return String.format(Locale.ROOT, "%s calls=%d errors=%d p50=%dns p99=%dns max=%dns", name, calls, errors,
+            latency.getValueAtPercentile(50), latency.getValueAtPercentile(99), latency.getMax());
+    }
+}
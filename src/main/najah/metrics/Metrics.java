@@ -0,0 +1,64 @@
+package main.najah.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the metrics recorded by {@code main.najah.code}.
+ * <p>
+ * Recording is off unless the JVM is started with {@code -Dnajah.metrics=true}
+ * or {@link #setEnabled(boolean)} is called. While off, each instrumented call
+ * costs one volatile read and no allocation or timer call. Values are pulled
+ * with {@link #snapshot()}; while on, every recorded call is also emitted as a
+ * {@link OperationEvent} to any active Flight Recorder recording.
+ */
+public final class Metrics {
+
+    private static final Map<String, Metric> METRICS = new ConcurrentHashMap<>();
+    static volatile boolean enabled = Boolean.getBoolean("najah.metrics");
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off for every metric.
+     * @param on
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Returns the metric with the given name, creating it on first use.
+     * Callers keep the result in a static field.
+     * @param name
+     * @return Metric
+     */
+    public static Metric metric(String name) {
+        return METRICS.computeIfAbsent(name, Metric::new);
+    }
+
+    /**
+     * Returns the current values of every metric, sorted by name.
+     * @return Map from metric name to snapshot
+     */
+    public static Map<String, MetricSnapshot> snapshot() {
+        Map<String, MetricSnapshot> snapshot = new TreeMap<>();
+        for (Metric m : METRICS.values()) {
+            snapshot.put(m.getName(), m.snapshot());
+        }
+        return snapshot;
+    }
+
+    /** Clears the values of every metric. */
+    public static void reset() {
+        for (Metric m : METRICS.values()) {
+            m.reset();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package main.najah.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one call recorded by a {@link Metric}. Disabled by
+ * default; enable {@code main.najah.Operation} in the recording settings.
+ */
+@Name("main.najah.Operation")
+@Label("Operation")
+@Category("Najah")
+@Description("One instrumented call in main.najah.code")
+@Enabled(false)
+@StackTrace(false)
+class OperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Failed")
+    boolean failed;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
@@ -3,8 +3,25 @@ package main.najah.test;
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 
+/**
+ * Runs every test class. Parallel execution, the fork-join strategy and
+ * sharding are configured in {@code junit-platform.properties}; for example
+ * {@code -Djunit.shard.count=3 -Djunit.shard.index=0} runs the first of three shards.
+ */
 @Suite
-@SelectClasses({ CalculatorTest.class, ProductTest.class, RecipeBookTest.class, UserServiceTest.class,RecipeTest.class })
+@SelectClasses({ CalculatorTest.class, ProductTest.class, RecipeBookTest.class, UserServiceTest.class,RecipeTest.class,
+		RecipeEventPublisherTest.class,
+		LatencyHistogramTest.class, RecipeBookStressTest.class, PerfBudgetTest.class,
+		ShardConditionTest.class, MetricsTest.class, ConcurrentHistogramTest.class,
+		RecipeExceptionTest.class, ImmutableRecipeTest.class,
+		RecipeInternerTest.class, OrderQueueTest.class, BrewingSchedulerTest.class,
+		SalesLedgerTest.class, RecipeBookRegistryTest.class,
+		LoadGeneratorTest.class, RecipeCsvIngesterTest.class,
+		EmailValidationPipelineTest.class, ProductCatalogTest.class,
+		PriceHistoryTest.class, FinalPriceIndexTest.class,
+		PromotionSchedulerTest.class, ExpressionTest.class,
+		ModularCombinatoricsTest.class, RecipeCostEngineTest.class,
+		SharedMenuTest.class })
 public class AllTests {
 
 }
\ No newline at end of file
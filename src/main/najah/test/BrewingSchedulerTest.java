@@ -0,0 +1,149 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.*;
+
+@DisplayName("BrewingScheduler Tests")
+public class BrewingSchedulerTest {
+
+    RecipeBook book;
+    List<String> brewed;
+    BrewingScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        book = new RecipeBook();
+        Recipe mocha = new Recipe();
+        mocha.setName("Mocha");
+        Recipe latte = new Recipe();
+        latte.setName("Latte");
+        book.addRecipe(mocha);
+        book.addRecipe(latte);
+        brewed = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) scheduler.close();
+    }
+
+    @Test
+    @DisplayName("Orders for the same recipe are brewed as one batch")
+    void testBatchedByRecipe() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler = BrewingScheduler.start(book, 64, 64, (recipe, orders) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            brewed.add(recipe.getName() + " x" + orders.size());
+        });
+        // The first order holds the worker so that the rest queue up behind it
+        assertTrue(scheduler.submit(new BrewOrder(0, 0)));
+        Thread.sleep(50);
+        for (int i = 1; i <= 6; i++) {
+            assertTrue(scheduler.submit(new BrewOrder(i, i % 2)));
+        }
+        release.countDown();
+        scheduler.close();
+
+        BrewingScheduler.Stats stats = scheduler.getStats();
+        assertAll("Batches",
+            () -> assertEquals(List.of("Mocha x1", "Mocha x3", "Latte x3"), brewed),
+            () -> assertEquals(7, stats.getBrewed()),
+            () -> assertEquals(3, stats.getBatches()),
+            () -> assertEquals(7, stats.getTimeInQueue().getCount()),
+            () -> assertEquals(0, stats.getQueueDepth())
+        );
+    }
+
+    @Test
+    @DisplayName("Orders for empty or unknown slots are rejected")
+    void testRejected() {
+        scheduler = BrewingScheduler.start(book, 16, 16, (recipe, orders) -> brewed.add(recipe.getName()));
+        scheduler.submit(new BrewOrder(1, 2));
+        scheduler.submit(new BrewOrder(2, 99));
+        scheduler.submit(new BrewOrder(3, 1));
+        scheduler.close();
+
+        assertEquals(List.of("Latte"), brewed);
+        assertEquals(2, scheduler.getStats().getRejected());
+    }
+
+    @Test
+    @DisplayName("Submit returns false when the queue is full or the scheduler is closed")
+    void testBackpressure() {
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler = BrewingScheduler.start(book, 2, 1, (recipe, orders) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        boolean rejected = false;
+        for (int i = 0; i < 10 && !rejected; i++) {
+            rejected = !scheduler.submit(new BrewOrder(i, 0));
+        }
+        assertTrue(rejected, "A full queue should reject new orders");
+        assertTrue(scheduler.getStats().getMaxQueueDepth() <= 2);
+
+        release.countDown();
+        scheduler.close();
+        assertFalse(scheduler.submit(new BrewOrder(100, 0)));
+    }
+
+    @Test
+    @DisplayName("A batch whose brewer throws is counted as failed and the worker carries on")
+    void testBrewerFailure() {
+        scheduler = BrewingScheduler.start(book, 16, 1, (recipe, orders) -> {
+            if (recipe.getName().equals("Mocha")) throw new IllegalStateException("Out of chocolate");
+            brewed.add(recipe.getName());
+        });
+        scheduler.submit(new BrewOrder(1, 0));
+        scheduler.submit(new BrewOrder(2, 1));
+        scheduler.submit(new BrewOrder(3, 0));
+        scheduler.submit(new BrewOrder(4, 1));
+        scheduler.close();
+
+        BrewingScheduler.Stats stats = scheduler.getStats();
+        assertAll("After failures",
+            () -> assertEquals(List.of("Latte", "Latte"), brewed),
+            () -> assertEquals(2, stats.getFailed()),
+            () -> assertEquals(2, stats.getBrewed())
+        );
+    }
+
+    @Test
+    @DisplayName("Every accepted order is brewed even when submits race close()")
+    void testSubmitRacingClose() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            List<BrewOrder> done = new CopyOnWriteArrayList<>();
+            BrewingScheduler s = BrewingScheduler.start(book, 1024, 64, (recipe, orders) -> done.addAll(orders));
+            int[] accepted = new int[1];
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    if (s.submit(new BrewOrder(i, i % 2))) accepted[0]++;
+                }
+            });
+            producer.start();
+            s.close();
+            producer.join();
+            assertEquals(accepted[0], done.size(), "Round " + round);
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid batch size throws IllegalArgumentException")
+    void testInvalidBatch() {
+        assertThrows(IllegalArgumentException.class, () -> BrewingScheduler.start(book, 16, 0, (r, o) -> { }));
+    }
+}
@@ -6,12 +6,17 @@ import org.junit.jupiter.api.*;
 
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import main.najah.code.Calculator;
 
 @TestMethodOrder(OrderAnnotation.class)
+@Execution(ExecutionMode.CONCURRENT)
 @DisplayName("Calculator Tests")
 public class CalculatorTest {
 
@@ -94,6 +99,8 @@ public class CalculatorTest {
     }
 
     @Test
+    @PerfBudget(opsPerSec = 100_000, maxP99 = 50_000)
+    @ResourceLock(value = PerfBudget.LOCK, mode = ResourceAccessMode.READ_WRITE)
     @Order(10)
     @Timeout(1)
     @DisplayName("Add with timeout")
@@ -213,6 +220,8 @@ public class CalculatorTest {
     }
 
     @Test
+    @PerfBudget(opsPerSec = 100_000, maxP99 = 50_000)
+    @ResourceLock(value = PerfBudget.LOCK, mode = ResourceAccessMode.READ_WRITE)
     @Order(25)
     @Timeout(1)
     @DisplayName("Divide with timeout")
@@ -248,6 +257,8 @@ public class CalculatorTest {
     }
 
     @Test
+    @PerfBudget(opsPerSec = 100_000, maxP99 = 50_000)
+    @ResourceLock(value = PerfBudget.LOCK, mode = ResourceAccessMode.READ_WRITE)
     @Order(29)
     @DisplayName("Factorial of 5 with multiple assertions")
     void testFactorialFive() {
@@ -0,0 +1,55 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+import main.najah.metrics.ConcurrentHistogram;
+import main.najah.metrics.LatencyHistogram;
+
+@DisplayName("ConcurrentHistogram Tests")
+public class ConcurrentHistogramTest {
+
+    @Test
+    @DisplayName("Snapshot matches a single-threaded histogram")
+    void testSnapshotMatches() {
+        ConcurrentHistogram concurrent = new ConcurrentHistogram();
+        LatencyHistogram plain = new LatencyHistogram();
+        for (long v = 1; v < 100_000; v += 37) {
+            concurrent.record(v);
+            plain.record(v);
+        }
+        LatencyHistogram snapshot = concurrent.snapshot();
+
+        assertAll("Snapshot",
+            () -> assertEquals(plain.getCount(), snapshot.getCount()),
+            () -> assertEquals(plain.getMax(), snapshot.getMax()),
+            () -> assertEquals(plain.getMean(), snapshot.getMean(), 0.001),
+            () -> assertEquals(plain.getValueAtPercentile(99), snapshot.getValueAtPercentile(99))
+        );
+    }
+
+    @Test
+    @DisplayName("Values recorded from many threads are all counted")
+    void testConcurrentRecording() throws InterruptedException {
+        ConcurrentHistogram h = new ConcurrentHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) h.record(i);
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        assertEquals(40_000, h.snapshot().getCount());
+    }
+
+    @Test
+    @DisplayName("Reset clears all values")
+    void testReset() {
+        ConcurrentHistogram h = new ConcurrentHistogram();
+        h.record(100);
+        h.reset();
+        assertEquals(0, h.snapshot().getCount());
+    }
+}
@@ -0,0 +1,98 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import main.najah.ingest.EmailValidationPipeline;
+import main.najah.ingest.IngestReport;
+
+@DisplayName("EmailValidationPipeline Tests")
+public class EmailValidationPipelineTest {
+
+    Path input;
+    Path valid;
+    Path invalid;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        input = Files.createTempFile("emails", ".txt");
+        valid = Files.createTempFile("valid", ".txt");
+        invalid = Files.createTempFile("invalid", ".txt");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(valid);
+        Files.deleteIfExists(invalid);
+    }
+
+    private static EmailValidationPipeline pipeline(int blockSize) {
+        return new EmailValidationPipeline(blockSize, 3, 10, new UserService()::isValidEmail);
+    }
+
+    @ParameterizedTest(name = "block size {0}")
+    @ValueSource(ints = {16, 64, 1 << 20})
+    @DisplayName("Addresses are split into valid and invalid files in input order")
+    void testSplit(int blockSize) throws Exception {
+        Files.writeString(input, "a@b.c\r\nbad\n\nx@y.org\nno-dot@host\nlast@mail.com", StandardCharsets.UTF_8);
+        IngestReport report = pipeline(blockSize).run(input, valid, invalid);
+
+        assertAll("Report",
+            () -> assertEquals(5, report.getRecords()),
+            () -> assertEquals(2, report.getRejected()),
+            () -> assertEquals(List.of("a@b.c", "x@y.org", "last@mail.com"), Files.readAllLines(valid)),
+            () -> assertEquals(List.of("bad", "no-dot@host"), Files.readAllLines(invalid)),
+            () -> assertEquals(2, report.getErrors().get(0).getLine()),
+            () -> assertEquals("no-dot@host", report.getErrors().get(1).getValue()),
+            () -> assertEquals(5, report.getErrors().get(1).getLine())
+        );
+    }
+
+    @Test
+    @DisplayName("Large inputs are processed in order, with progress reports")
+    void testLargeInputWithProgress() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            sb.append(i % 10 == 0 ? "user" + i + ".example.com" : "user" + i + "@example.com").append('\n');
+        }
+        Files.writeString(input, sb, StandardCharsets.UTF_8);
+        List<IngestReport> progress = new ArrayList<>();
+        IngestReport report = pipeline(4096).run(input, valid, invalid, progress::add, 0);
+
+        List<String> ok = Files.readAllLines(valid);
+        assertAll("Report",
+            () -> assertEquals(50_000, report.getRecords()),
+            () -> assertEquals(5_000, report.getRejected()),
+            () -> assertEquals(45_000, ok.size()),
+            () -> assertEquals("user1@example.com", ok.get(0)),
+            () -> assertEquals("user49999@example.com", ok.get(ok.size() - 1)),
+            () -> assertEquals(Files.size(input), Files.size(valid) + Files.size(invalid)),
+            () -> assertFalse(progress.isEmpty()),
+            () -> assertTrue(report.getMegabytesPerSec() > 0)
+        );
+    }
+
+    @Test
+    @DisplayName("A line longer than the block size throws IllegalArgumentException")
+    void testLineTooLong() throws Exception {
+        Files.writeString(input, "short@a.b\naddress-longer-than-the-block@example.com\n", StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> pipeline(16).run(input, valid, invalid));
+    }
+
+    @Test
+    @DisplayName("Invalid configuration throws IllegalArgumentException")
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> pipeline(0));
+    }
+}
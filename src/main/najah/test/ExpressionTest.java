@@ -0,0 +1,93 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import main.najah.code.Calculator;
+import main.najah.code.Expression;
+
+@DisplayName("Expression Tests")
+public class ExpressionTest {
+
+    Calculator calc = new Calculator();
+
+    @Test
+    @DisplayName("A compiled formula matches the same Calculator calls")
+    void testMatchesCalculator() {
+        Expression e = Expression.compile("(a + b) / c!");
+        assertAll("Formula",
+            () -> assertEquals(List.of("a", "b", "c"), e.getVariables()),
+            () -> assertEquals(calc.divide(calc.add(10, 14), calc.factorial(3)), e.evaluate(10, 14, 3)),
+            () -> assertEquals(calc.divide(calc.add(-7, 2), calc.factorial(0)), e.evaluate(-7, 2, 0))
+        );
+    }
+
+    @ParameterizedTest(name = "{0} = {1}")
+    @CsvSource({
+        "1 + 2 * 3, 7",
+        "(1 + 2) * 3, 9",
+        "-3! + 10 / 3, -3",
+        "2147483647 + 1, -2147483648",
+        "7 - 2 - 1, 4",
+        "3!!, 720"
+    })
+    @DisplayName("Constant formulas follow precedence and int arithmetic")
+    void testConstants(String source, int expected) {
+        assertEquals(expected, Expression.compile(source).evaluate());
+    }
+
+    @Test
+    @DisplayName("Factorial wraps exactly like Calculator.factorial")
+    void testFactorial() {
+        Expression e = Expression.compile("n!");
+        for (int n = 0; n < 50; n++) assertEquals(calc.factorial(n), e.evaluate(n), "n = " + n);
+        assertThrows(IllegalArgumentException.class, () -> e.evaluate(-1));
+    }
+
+    @Test
+    @DisplayName("Division by a zero variable throws ArithmeticException")
+    void testDivideByZero() {
+        ArithmeticException ex = assertThrows(ArithmeticException.class, () -> Expression.compile("a / b").evaluate(1, 0));
+        assertEquals("Cannot divide by zero", ex.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"(a + b", "a +", "1 / 0", "a $ b", "99999999999", ""})
+    @DisplayName("Malformed formulas are rejected when compiling")
+    void testMalformed(String source) {
+        assertThrows(IllegalArgumentException.class, () -> Expression.compile(source));
+    }
+
+    @Test
+    @DisplayName("Explicit variable lists fix positions and reject unknown names")
+    void testExplicitVariables() {
+        Expression e = Expression.compile("b - a", "a", "b");
+        assertEquals(5, e.evaluate(2, 7));
+        assertThrows(IllegalArgumentException.class, () -> Expression.compile("a + c", "a", "b"));
+        assertThrows(IllegalArgumentException.class, () -> e.evaluate(1));
+    }
+
+    @Test
+    @DisplayName("evaluateAll computes every row of the columns")
+    void testEvaluateAll() {
+        Expression e = Expression.compile("(price - cost) * qty / 2");
+        Random random = new Random(5);
+        int rows = 10_000;
+        int[][] columns = new int[3][rows];
+        for (int[] column : columns) {
+            for (int r = 0; r < rows; r++) column[r] = random.nextInt(1000);
+        }
+        int[] results = new int[rows];
+        e.evaluateAll(columns, results);
+        for (int r = 0; r < rows; r++) {
+            assertEquals((columns[0][r] - columns[1][r]) * columns[2][r] / 2, results[r]);
+        }
+    }
+}
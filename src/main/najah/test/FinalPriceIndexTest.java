@@ -0,0 +1,106 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.*;
+
+import main.najah.code.FinalPriceIndex;
+import main.najah.code.Product;
+
+@DisplayName("FinalPriceIndex Tests")
+public class FinalPriceIndexTest {
+
+    FinalPriceIndex index;
+    Product tea, latte, mocha, cake;
+
+    @BeforeEach
+    void setUp() {
+        index = new FinalPriceIndex();
+        tea = new Product("Tea", 5);
+        latte = new Product("Latte", 12);
+        mocha = new Product("Mocha", 18);
+        cake = new Product("Cake", 25);
+        for (Product p : List.of(tea, latte, mocha, cake)) index.add(p);
+    }
+
+    @Test
+    @DisplayName("Range, count and top-N queries follow final prices")
+    void testQueries() {
+        assertAll("Queries",
+            () -> assertEquals(4, index.size()),
+            () -> assertEquals(List.of(latte, mocha), index.getInRange(10, 20)),
+            () -> assertEquals(2, index.countInRange(10, 20)),
+            () -> assertEquals(2, index.countInRange(12, 18)),
+            () -> assertEquals(0, index.countInRange(20, 10)),
+            () -> assertEquals(List.of(tea, latte), index.getCheapest(2)),
+            () -> assertEquals(List.of(cake, mocha, latte), index.getMostExpensive(3)),
+            () -> assertEquals(4, index.getCheapest(100).size())
+        );
+    }
+
+    @Test
+    @DisplayName("applyDiscount moves a product to its new final price")
+    void testDiscountUpdatesIndex() {
+        cake.applyDiscount(50);
+        assertAll("After discount",
+            () -> assertEquals(List.of(latte, cake, mocha), index.getInRange(10, 20)),
+            () -> assertEquals(List.of(mocha), index.getMostExpensive(1))
+        );
+    }
+
+    @Test
+    @DisplayName("Concurrent discounts on one product leave it at its final price")
+    void testConcurrentDiscounts() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 20_000; i++) cake.applyDiscount(random.nextInt(51));
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        double price = cake.getFinalPrice();
+        assertEquals(List.of(cake), index.getInRange(price, price).stream()
+            .filter(p -> p == cake).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Removed products are no longer listed or followed")
+    void testRemove() {
+        assertTrue(index.remove(latte));
+        assertFalse(index.remove(latte));
+        latte.applyDiscount(50);
+        assertEquals(List.of(tea, mocha, cake), index.getCheapest(10));
+        assertFalse(index.add(tea));
+    }
+
+    @Test
+    @DisplayName("Queries match a sorted scan after many random discounts")
+    void testMatchesScan() {
+        Random random = new Random(7);
+        List<Product> all = new ArrayList<>();
+        FinalPriceIndex big = new FinalPriceIndex();
+        for (int i = 0; i < 2000; i++) {
+            Product p = new Product("P" + i, random.nextInt(100));
+            all.add(p);
+            big.add(p);
+        }
+        for (int i = 0; i < 5000; i++) all.get(random.nextInt(all.size())).applyDiscount(random.nextInt(51));
+
+        List<Product> sorted = all.stream().sorted(Comparator.comparingDouble(Product::getFinalPrice))
+            .collect(Collectors.toList());
+        assertEquals(sorted.subList(0, 50).stream().map(Product::getFinalPrice).collect(Collectors.toList()),
+            big.getCheapest(50).stream().map(Product::getFinalPrice).collect(Collectors.toList()));
+        long expected = all.stream().filter(p -> p.getFinalPrice() >= 20 && p.getFinalPrice() <= 40).count();
+        assertEquals(expected, big.countInRange(20, 40));
+        assertEquals(expected, big.getInRange(20, 40).size());
+    }
+}
@@ -0,0 +1,115 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+@DisplayName("ImmutableRecipe Tests")
+public class ImmutableRecipeTest {
+
+    ImmutableRecipe mocha;
+
+    @BeforeEach
+    void setUp() throws RecipeException {
+        mocha = ImmutableRecipe.builder().name("Mocha").price(50)
+            .amtCoffee(3).amtMilk(1).amtSugar(1).amtChocolate(2).build();
+    }
+
+    @Test
+    @DisplayName("Builder sets every value")
+    void testBuilder() {
+        assertAll("Built recipe",
+            () -> assertEquals("Mocha", mocha.getName()),
+            () -> assertEquals(50, mocha.getPrice()),
+            () -> assertEquals(3, mocha.getAmtCoffee()),
+            () -> assertEquals(1, mocha.getAmtMilk()),
+            () -> assertEquals(1, mocha.getAmtSugar()),
+            () -> assertEquals(2, mocha.getAmtChocolate())
+        );
+    }
+
+    @Test
+    @DisplayName("Equality and hash code cover every field")
+    void testStructuralEquality() throws RecipeException {
+        ImmutableRecipe same = mocha.toBuilder().build();
+        ImmutableRecipe sweeter = mocha.toBuilder().amtSugar(3).build();
+
+        assertAll("Equality",
+            () -> assertEquals(mocha, same),
+            () -> assertEquals(mocha.hashCode(), same.hashCode()),
+            () -> assertNotEquals(mocha, sweeter),
+            () -> assertEquals(1, mocha.getAmtSugar())
+        );
+    }
+
+    @ParameterizedTest(name = "{0} = {1}")
+    @CsvSource({
+        "price, Price must be a positive integer",
+        "coffee, Units of coffee must be a positive integer",
+        "milk, Units of milk must be a positive integer",
+        "sugar, Units of sugar must be a positive integer",
+        "chocolate, Units of chocolate must be a positive integer"
+    })
+    @DisplayName("Negative values are rejected at build time")
+    void testValidation(String field, String message) {
+        ImmutableRecipe.Builder b = ImmutableRecipe.builder().name("Bad");
+        switch (field) {
+            case "price": b.price(-1); break;
+            case "coffee": b.amtCoffee(-1); break;
+            case "milk": b.amtMilk(-1); break;
+            case "sugar": b.amtSugar(-1); break;
+            default: b.amtChocolate(-1); break;
+        }
+        RecipeException e = assertThrows(RecipeException.class, b::build);
+        assertEquals(message, e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Null name is ignored like Recipe.setName")
+    void testNullName() throws RecipeException {
+        assertEquals("", ImmutableRecipe.builder().name(null).build().getName());
+    }
+
+    @Test
+    @DisplayName("Conversion to and from Recipe keeps every value")
+    void testRecipeRoundTrip() {
+        Recipe r = mocha.toRecipe();
+        assertAll("Converted recipe",
+            () -> assertEquals("Mocha", r.getName()),
+            () -> assertEquals(2, r.getAmtChocolate()),
+            () -> assertEquals(mocha, ImmutableRecipe.from(r))
+        );
+    }
+
+    @Test
+    @DisplayName("Editing a book with a converted recipe leaves the immutable recipe unchanged")
+    void testEditDoesNotTouchImmutable() {
+        RecipeBook book = new RecipeBook();
+        book.addRecipe(mocha.toRecipe());
+        book.editRecipe(0, mocha.toRecipe());
+        assertEquals("Mocha", mocha.getName());
+    }
+
+    @Test
+    @DisplayName("Menu snapshot follows add, edit and delete")
+    void testMenuSnapshot() {
+        RecipeBook book = new RecipeBook();
+        List<ImmutableRecipe> empty = book.getMenu();
+        book.addRecipe(mocha.toRecipe());
+        List<ImmutableRecipe> afterAdd = book.getMenu();
+        book.deleteRecipe(0);
+
+        assertAll("Menu snapshots",
+            () -> assertEquals(4, empty.size()),
+            () -> assertNull(empty.get(0)),
+            () -> assertEquals(mocha, afterAdd.get(0)),
+            () -> assertNull(book.getMenu().get(0)),
+            () -> assertThrows(UnsupportedOperationException.class, () -> afterAdd.set(0, null))
+        );
+    }
+}
@@ -0,0 +1,75 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import main.najah.metrics.LatencyHistogram;
+
+@DisplayName("LatencyHistogram Tests")
+public class LatencyHistogramTest {
+
+    LatencyHistogram h;
+
+    @BeforeEach
+    void setUp() {
+        h = new LatencyHistogram();
+    }
+
+    @Test
+    @DisplayName("Empty histogram reports zero")
+    void testEmpty() {
+        assertAll("Empty histogram",
+            () -> assertEquals(0, h.getCount()),
+            () -> assertEquals(0, h.getValueAtPercentile(99)),
+            () -> assertEquals(0.0, h.getMean())
+        );
+    }
+
+    @Test
+    @DisplayName("Small values are counted exactly")
+    void testExactSmallValues() {
+        for (int v = 1; v <= 100; v++) h.record(v);
+        assertAll("Percentiles of 1..100",
+            () -> assertEquals(100, h.getCount()),
+            () -> assertEquals(50, h.getValueAtPercentile(50)),
+            () -> assertEquals(99, h.getValueAtPercentile(99)),
+            () -> assertEquals(100, h.getValueAtPercentile(100)),
+            () -> assertEquals(50.5, h.getMean(), 0.001)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {300, 12_345, 1_000_000, 987_654_321})
+    @DisplayName("Large values are reported within 1%")
+    void testRelativeError(long value) {
+        h.record(value);
+        h.record(value * 2);
+        long p50 = h.getValueAtPercentile(50);
+        assertTrue(Math.abs(p50 - value) <= value / 100, "p50 " + p50 + " for " + value);
+    }
+
+    @Test
+    @DisplayName("Merged histogram holds both sets of values")
+    void testAdd() {
+        LatencyHistogram other = new LatencyHistogram();
+        h.record(10);
+        other.record(20);
+        other.record(30);
+        h.add(other);
+
+        assertAll("Merged histogram",
+            () -> assertEquals(3, h.getCount()),
+            () -> assertEquals(30, h.getMax()),
+            () -> assertEquals(20, h.getValueAtPercentile(50))
+        );
+    }
+
+    @Test
+    @DisplayName("Percentile outside 0..100 throws IllegalArgumentException")
+    void testInvalidPercentile() {
+        assertThrows(IllegalArgumentException.class, () -> h.getValueAtPercentile(101));
+    }
+}
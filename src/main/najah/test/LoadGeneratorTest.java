@@ -0,0 +1,101 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import main.najah.bench.LoadGenerator;
+import main.najah.bench.ReplayResult;
+import main.najah.bench.TraceOp;
+import main.najah.bench.TraceReplayer;
+
+@ResourceLock(PerfBudget.LOCK)
+@DisplayName("LoadGenerator Tests")
+public class LoadGeneratorTest {
+
+    @Test
+    @DisplayName("The same seed generates the same trace")
+    void testDeterministic() {
+        List<TraceOp> a = new LoadGenerator(7, 10_000).generate(2_000);
+        List<TraceOp> b = new LoadGenerator(7, 10_000).generate(2_000);
+        List<TraceOp> c = new LoadGenerator(8, 10_000).generate(2_000);
+
+        assertEquals(a, b);
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    @DisplayName("Offsets never decrease and follow the requested rate")
+    void testSchedule() {
+        List<TraceOp> ops = new LoadGenerator(1, 1_000).generate(5_000);
+        for (int i = 1; i < ops.size(); i++) {
+            assertTrue(ops.get(i).getAtNanos() >= ops.get(i - 1).getAtNanos());
+        }
+        double seconds = ops.get(ops.size() - 1).getAtNanos() / 1e9;
+        assertEquals(5.0, seconds, 0.5, "5000 ops at 1000 ops/s should span about 5 s");
+        assertEquals(0, new LoadGenerator(1, 0).generate(100).get(99).getAtNanos());
+    }
+
+    @Test
+    @DisplayName("Every kind of operation is generated")
+    void testAllKinds() {
+        List<TraceOp> ops = new LoadGenerator(3, 0).generate(5_000);
+        for (TraceOp.Kind kind : TraceOp.Kind.values()) {
+            assertTrue(ops.stream().anyMatch(op -> op.getKind() == kind), "Missing " + kind);
+        }
+    }
+
+    @Test
+    @DisplayName("A written trace reads back unchanged")
+    void testTraceRoundTrip() throws Exception {
+        List<TraceOp> ops = new LoadGenerator(5, 10_000).generate(1_000);
+        StringWriter out = new StringWriter();
+        LoadGenerator.writeTrace(ops, out);
+
+        assertEquals(ops, LoadGenerator.readTrace(new StringReader("# comment\n\n" + out)));
+    }
+
+    @Test
+    @DisplayName("Malformed trace lines throw IllegalArgumentException")
+    void testInvalidLines() {
+        assertAll("Invalid lines",
+            () -> assertThrows(IllegalArgumentException.class, () -> TraceOp.parse("0 UNKNOWN")),
+            () -> assertThrows(IllegalArgumentException.class, () -> TraceOp.parse("x RECIPE_GET")),
+            () -> assertThrows(IllegalArgumentException.class, () -> TraceOp.parse("0 LOGIN admin")),
+            () -> assertThrows(IllegalArgumentException.class, () -> TraceOp.parse("0 CALC_ADD"))
+        );
+    }
+
+    @Test
+    @DisplayName("Replays of the same trace have the same outcome")
+    void testReplayReproducible() {
+        List<TraceOp> ops = new LoadGenerator(11, 0, 0.1).generate(5_000);
+        ReplayResult first = new TraceReplayer(0).replay(ops);
+        ReplayResult second = new TraceReplayer(0).replay(ops);
+
+        assertAll("Replays",
+            () -> assertEquals(5_000, first.getOperations()),
+            () -> assertTrue(first.getErrors() > 0, "Invalid values should be rejected"),
+            () -> assertEquals(first.getErrors(), second.getErrors()),
+            () -> assertEquals(first.getChecksum(), second.getChecksum()),
+            () -> assertNotNull(first.getLatency(TraceOp.Kind.RECIPE_GET))
+        );
+    }
+
+    @Test
+    @DisplayName("Paced replay keeps to the recorded schedule")
+    void testPacedReplay() {
+        List<TraceOp> ops = new LoadGenerator(2, 2_000).generate(200);
+        long span = ops.get(ops.size() - 1).getAtNanos();
+        ReplayResult r = new TraceReplayer(1).replay(ops);
+        assertTrue(r.getElapsedNanos() >= span);
+
+        ReplayResult doubled = new TraceReplayer(2).replay(ops);
+        assertTrue(doubled.getElapsedNanos() >= span / 2);
+    }
+}
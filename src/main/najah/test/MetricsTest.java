@@ -0,0 +1,125 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import main.najah.metrics.Metric;
+import main.najah.metrics.MetricSnapshot;
+import main.najah.metrics.Metrics;
+
+@Isolated("Metrics are global")
+@DisplayName("Metrics Tests")
+public class MetricsTest {
+
+    @BeforeEach
+    void setUp() {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    private static MetricSnapshot get(String name) {
+        return Metrics.snapshot().get(name);
+    }
+
+    @Test
+    @DisplayName("Calculator calls and errors are counted")
+    void testCalculatorCounted() {
+        Calculator calc = new Calculator();
+        calc.add(1, 2);
+        calc.divide(4, 2);
+        assertThrows(ArithmeticException.class, () -> calc.divide(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> calc.factorial(-1));
+
+        assertAll("Calculator metrics",
+            () -> assertEquals(1, get("Calculator.add").getCalls()),
+            () -> assertEquals(2, get("Calculator.divide").getCalls()),
+            () -> assertEquals(1, get("Calculator.divide").getErrors()),
+            () -> assertEquals(1, get("Calculator.factorial").getErrors()),
+            () -> assertEquals(2, get("Calculator.divide").getLatency().getCount())
+        );
+    }
+
+    @Test
+    @DisplayName("Rejected discounts are counted as errors")
+    void testProductRejections() {
+        Product p = new Product("Book", 10.0);
+        p.applyDiscount(10);
+        assertThrows(IllegalArgumentException.class, () -> p.applyDiscount(60));
+
+        MetricSnapshot m = get("Product.applyDiscount");
+        assertEquals(2, m.getCalls());
+        assertEquals(1, m.getErrors());
+    }
+
+    @Test
+    @DisplayName("Failed logins are counted as errors")
+    void testAuthentication() {
+        UserService service = new UserService();
+        service.authenticate("admin", "1234");
+        service.authenticate("admin", "wrong");
+        service.authenticate("guest", "1234");
+
+        MetricSnapshot m = get("UserService.authenticate");
+        assertEquals(3, m.getCalls());
+        assertEquals(2, m.getErrors());
+    }
+
+    @Test
+    @DisplayName("Recipe validation failures are counted per setter")
+    void testRecipeValidation() {
+        Recipe r = new Recipe();
+        assertThrows(RecipeException.class, () -> r.setAmtCoffee("-1"));
+        assertThrows(RecipeException.class, () -> r.setAmtCoffee("abc"));
+        assertDoesNotThrow(() -> r.setAmtMilk("2"));
+
+        assertAll("Recipe metrics",
+            () -> assertEquals(2, get("Recipe.setAmtCoffee").getErrors()),
+            () -> assertEquals(1, get("Recipe.setAmtMilk").getCalls()),
+            () -> assertEquals(0, get("Recipe.setAmtMilk").getErrors())
+        );
+    }
+
+    @Test
+    @DisplayName("RecipeBook lock wait and hold are recorded for every call")
+    void testRecipeBookLock() {
+        RecipeBook book = new RecipeBook();
+        Recipe r = new Recipe();
+        r.setName("Mocha");
+        book.addRecipe(r);
+        book.getRecipes();
+        book.deleteRecipe(0);
+
+        assertEquals(3, get("RecipeBook.lockWait").getCalls());
+        assertEquals(3, get("RecipeBook.lockHold").getCalls());
+    }
+
+    @Test
+    @DisplayName("Nothing is recorded while metrics are disabled")
+    void testDisabled() {
+        Metrics.setEnabled(false);
+        new Calculator().add(1, 2);
+        assertEquals(0, get("Calculator.add").getCalls());
+    }
+
+    @Test
+    @DisplayName("Custom metrics are registered once and appear in the snapshot")
+    void testCustomMetric() {
+        Metric m = Metrics.metric("Test.custom");
+        assertSame(m, Metrics.metric("Test.custom"));
+        m.fail(m.start());
+
+        Map<String, MetricSnapshot> snapshot = Metrics.snapshot();
+        assertEquals(1, snapshot.get("Test.custom").getErrors());
+    }
+}
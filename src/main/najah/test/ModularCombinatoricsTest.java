@@ -0,0 +1,116 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import main.najah.code.ModularCombinatorics;
+
+@DisplayName("ModularCombinatorics Tests")
+public class ModularCombinatoricsTest {
+
+    private static long exactNCr(long n, long r, long p) {
+        BigInteger c = BigInteger.ONE;
+        for (long i = 0; i < r; i++) c = c.multiply(BigInteger.valueOf(n - i)).divide(BigInteger.valueOf(i + 1));
+        return c.mod(BigInteger.valueOf(p)).longValue();
+    }
+
+    private static long exactNPr(long n, long r, long p) {
+        BigInteger c = BigInteger.ONE;
+        for (long i = 0; i < r; i++) c = c.multiply(BigInteger.valueOf(n - i));
+        return c.mod(BigInteger.valueOf(p)).longValue();
+    }
+
+    @Test
+    @DisplayName("nCr and nPr match exact arithmetic modulo 10^9 + 7")
+    void testDefaultPrime() {
+        ModularCombinatorics m = new ModularCombinatorics();
+        for (int n = 0; n < 200; n += 3) {
+            for (int r = 0; r <= n; r += 4) {
+                assertEquals(exactNCr(n, r, ModularCombinatorics.DEFAULT_PRIME), m.nCr(n, r), "C(" + n + "," + r + ")");
+                assertEquals(exactNPr(n, r, ModularCombinatorics.DEFAULT_PRIME), m.nPr(n, r), "P(" + n + "," + r + ")");
+            }
+        }
+        assertEquals(3628800, m.factorial(10));
+    }
+
+    @Test
+    @DisplayName("Arguments beyond a small prime use Lucas' theorem")
+    void testSmallPrime() {
+        ModularCombinatorics m = new ModularCombinatorics(13, 100);
+        for (int n = 0; n < 120; n++) {
+            for (int r = 0; r <= n; r++) {
+                assertEquals(exactNCr(n, r, 13), m.nCr(n, r), "C(" + n + "," + r + ")");
+                assertEquals(exactNPr(n, r, 13), m.nPr(n, r), "P(" + n + "," + r + ")");
+            }
+        }
+        assertAll("Factorials mod 13",
+            () -> assertEquals(12, m.factorial(12)),
+            () -> assertEquals(0, m.factorial(13)),
+            () -> assertEquals(13, m.getTableSize())
+        );
+    }
+
+    @Test
+    @DisplayName("Tables grow lazily as larger arguments are used")
+    void testLazyGrowth() {
+        ModularCombinatorics m = new ModularCombinatorics();
+        int initial = m.getTableSize();
+        assertEquals(149033233, m.nCr(100_000, 50_000));
+        assertTrue(m.getTableSize() > initial);
+        assertTrue(m.getTableSize() <= 2 * 100_001);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {-1, -100})
+    @DisplayName("Negative arguments throw IllegalArgumentException")
+    void testNegative(long n) {
+        ModularCombinatorics m = new ModularCombinatorics();
+        assertAll("Negative input",
+            () -> assertThrows(IllegalArgumentException.class, () -> m.factorial(n)),
+            () -> assertThrows(IllegalArgumentException.class, () -> m.nCr(n, 0)),
+            () -> assertThrows(IllegalArgumentException.class, () -> m.nPr(5, n))
+        );
+    }
+
+    @Test
+    @DisplayName("Invalid moduli and arguments past the table limit are rejected")
+    void testLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new ModularCombinatorics(15, 100));
+        ModularCombinatorics m = new ModularCombinatorics(ModularCombinatorics.DEFAULT_PRIME, 1000);
+        assertThrows(IllegalArgumentException.class, () -> m.factorial(5000));
+        assertEquals(0, m.nCr(3, 5));
+    }
+
+    @Test
+    @DisplayName("Threads growing the tables together see the same results")
+    void testConcurrentGrowth() throws Exception {
+        ModularCombinatorics m = new ModularCombinatorics();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Callable<Long> task = () -> {
+                    long h = 0;
+                    for (int i = 0; i < 50_000; i++) h = 31 * h + m.nCr(i, i / 3);
+                    return h;
+                };
+                results.add(pool.submit(task));
+            }
+            long first = results.get(0).get();
+            for (Future<Long> f : results) assertEquals(first, f.get().longValue());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+@DisplayName("OrderQueue Tests")
+public class OrderQueueTest {
+
+    @ParameterizedTest
+    @CsvSource({"1, 1", "3, 4", "4, 4", "5, 8", "1000, 1024"})
+    @DisplayName("Capacity is rounded up to a power of two")
+    void testCapacity(int requested, int expected) {
+        assertEquals(expected, new OrderQueue(requested).capacity());
+    }
+
+    @Test
+    @DisplayName("Invalid capacity throws IllegalArgumentException")
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderQueue(0));
+    }
+
+    @Test
+    @DisplayName("Orders come out in the order they were offered")
+    void testFifo() {
+        OrderQueue q = new OrderQueue(4);
+        for (int i = 0; i < 4; i++) assertTrue(q.offer(new BrewOrder(i, 0)));
+        assertFalse(q.offer(new BrewOrder(4, 0)), "Full queue should reject");
+        assertEquals(4, q.size());
+
+        for (int i = 0; i < 4; i++) assertEquals(i, q.poll().getId());
+        assertNull(q.poll());
+        assertEquals(0, q.size());
+    }
+
+    @Test
+    @DisplayName("Offer stamps the enqueue time")
+    void testEnqueueTime() {
+        OrderQueue q = new OrderQueue(2);
+        long before = System.nanoTime();
+        BrewOrder o = new BrewOrder(1, 0);
+        q.offer(o);
+        assertTrue(o.getEnqueuedAt() >= before);
+    }
+
+    @Test
+    @DisplayName("Drain moves at most max orders")
+    void testDrain() {
+        OrderQueue q = new OrderQueue(8);
+        for (int i = 0; i < 5; i++) q.offer(new BrewOrder(i, 0));
+        BrewOrder[] out = new BrewOrder[8];
+
+        assertEquals(3, q.drain(out, 3));
+        assertEquals(2, q.drain(out, 8));
+        assertEquals(4, out[1].getId());
+    }
+
+    @Test
+    @DisplayName("Orders from many producers are each delivered exactly once")
+    void testConcurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        OrderQueue q = new OrderQueue(256);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    BrewOrder o = new BrewOrder(base + i, 0);
+                    while (!q.offer(o)) Thread.onSpinWait();
+                }
+            });
+            threads[p].start();
+        }
+        start.countDown();
+
+        BitSet seen = new BitSet();
+        int received = 0;
+        while (received < producers * perProducer) {
+            BrewOrder o = q.poll();
+            if (o == null) continue;
+            assertFalse(seen.get((int) o.getId()), "Duplicate order " + o);
+            seen.set((int) o.getId());
+            received++;
+        }
+        for (Thread t : threads) t.join();
+        assertNull(q.poll());
+    }
+}
@@ -0,0 +1,58 @@
+package main.najah.test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Runs a test method many times and fails it when it becomes too slow.
+ * <p>
+ * The method is first called {@link #warmup()} times, then timed over
+ * {@link #iterations()} calls, and finally run once more as the normal test.
+ * The measured throughput and p99 latency are checked against the absolute
+ * limits given here and against the entry for the method in
+ * {@code perf-baseline.properties}, widened by {@link #tolerance()}. Both are
+ * relaxed when the machine is slower or busier than the one the baseline was
+ * recorded on; see {@link PerfBudgetExtension}.
+ * Only use it on methods that can be repeated without re-running
+ * {@code @BeforeEach} and that leave the state as they found it, and hold
+ * {@link #LOCK} in {@code READ_WRITE} mode on them so that budgeted and
+ * CPU-heavy tests are not measured alongside each other. Repetitions happen
+ * before the test call itself, so a {@code @Timeout} on the method still
+ * limits a single call.
+ *
+ * @see PerfBudgetExtension
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(PerfBudgetExtension.class)
+public @interface PerfBudget {
+
+    /**
+     * Resource lock held by budgeted and CPU-heavy tests so that none of them
+     * run at the same time as each other.
+     */
+    String LOCK = "main.najah.test.PerfBudget";
+
+    /** Minimum calls per second, 0 for no absolute limit. */
+    double opsPerSec() default 0;
+
+    /** Maximum 99th percentile latency in nanoseconds, 0 for no absolute limit. */
+    long maxP99() default 0;
+
+    /** Untimed calls made before measuring. */
+    int warmup() default 2_000;
+
+    /** Timed calls. */
+    int iterations() default 20_000;
+
+    /**
+     * How far the result may drift from the stored baseline: 4.0 allows a
+     * throughput down to a fifth of the baseline and a p99 up to five times it.
+     * Overridden for every test by the {@code perf.tolerance} system property.
+     */
+    double tolerance() default 4.0;
+}
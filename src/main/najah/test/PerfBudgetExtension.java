@@ -0,0 +1,237 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+import main.najah.metrics.LatencyHistogram;
+
+/**
+ * Enforces {@link PerfBudget} on test methods.
+ * <p>
+ * Baselines are read from {@code perf-baseline.properties} next to this class,
+ * one {@code TestClass.method = opsPerSec p99Nanos} entry per budgeted test.
+ * Its {@code calibration} entry holds the throughput of a fixed workload on
+ * the machine the baseline was recorded on. Every measurement times that
+ * workload between the test calls, so both see the same machine and the same
+ * load. When it runs slower than the entry, every limit, absolute or from the
+ * baseline, is relaxed by the same factor: throughput floors divided by it
+ * and p99 ceilings multiplied by it. Faster runs keep the limits as written.
+ * <p>
+ * System properties:
+ * <ul>
+ * <li>{@code perf.record=<file>} writes the measured values, calibration
+ * included, to that file instead of checking the baseline, to refresh it on
+ * a reference machine</li>
+ * <li>{@code perf.tolerance=<x>} overrides every test's tolerance</li>
+ * <li>{@code perf.slowdown=<x>} sets the slowdown factor instead of
+ * calibrating, for example to relax every budget on a shared CI runner</li>
+ * <li>{@code perf.skip=true} runs budgeted tests once, without measuring</li>
+ * </ul>
+ */
+public class PerfBudgetExtension implements BeforeTestExecutionCallback, InvocationInterceptor {
+
+    static final String BASELINE_RESOURCE = "perf-baseline.properties";
+    static final String CALIBRATION_KEY = "calibration";
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+        ExtensionContext.Namespace.create(PerfBudgetExtension.class);
+
+    private static final Object RECORD_LOCK = new Object();
+    private static volatile Properties baseline;
+    private static int calibrationState;
+
+    /** Timings of the test calls and of the calibration workload run between them. */
+    private static final class Measurement {
+        final LatencyHistogram test = new LatencyHistogram();
+        final LatencyHistogram calibration = new LatencyHistogram();
+    }
+
+    /**
+     * Measures tests without parameters here, before the test invocation, so
+     * that a {@code @Timeout} on the method limits the single test call rather
+     * than every repetition.
+     */
+    public void beforeTestExecution(ExtensionContext context) throws Exception {
+        Method method = context.getRequiredTestMethod();
+        PerfBudget budget = method.getAnnotation(PerfBudget.class);
+        if (budget == null || Boolean.getBoolean("perf.skip") || method.getParameterCount() != 0) return;
+        try {
+            context.getStore(NAMESPACE).put(method, measure(budget.warmup(), budget.iterations(), method,
+                context.getRequiredTestInstance(), new Object[0]));
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext) throws Throwable {
+        Method method = invocationContext.getExecutable();
+        PerfBudget budget = method.getAnnotation(PerfBudget.class);
+        if (budget == null || Boolean.getBoolean("perf.skip")) {
+            invocation.proceed();
+            return;
+        }
+
+        Measurement measurement = extensionContext.getStore(NAMESPACE).remove(method, Measurement.class);
+        if (measurement == null) {
+            // Parameterised tests only get their arguments here
+            measurement = measure(budget.warmup(), budget.iterations(), method,
+                invocationContext.getTarget().orElse(null), invocationContext.getArguments().toArray());
+        }
+        invocation.proceed();
+
+        LatencyHistogram histogram = measurement.test;
+        double calibrationOps = 1e9 / measurement.calibration.getMean();
+        String key = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        double opsPerSec = 1e9 / histogram.getMean();
+        long p99 = histogram.getValueAtPercentile(99);
+        extensionContext.publishReportEntry("perf", String.format(Locale.ROOT,
+            "%s %.0f ops/s p50=%dns p99=%dns max=%dns calibration=%.0f ops/s", key, opsPerSec,
+            histogram.getValueAtPercentile(50), p99, histogram.getMax(), calibrationOps));
+
+        String record = System.getProperty("perf.record");
+        if (record != null) {
+            long calibrationP99 = measurement.calibration.getValueAtPercentile(99);
+            record(Paths.get(record), CALIBRATION_KEY, calibrationOps, calibrationP99);
+            record(Paths.get(record), key, opsPerSec, p99);
+        } else {
+            check(budget, key, opsPerSec, p99, slowdown(calibrationOps));
+        }
+    }
+
+    public void interceptTestTemplateMethod(Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
+        interceptTestMethod(invocation, invocationContext, extensionContext);
+    }
+
+    private static Measurement measure(int warmup, int iterations, Method method, Object target, Object[] args)
+            throws Throwable {
+        method.setAccessible(true);
+        for (int i = 0; i < warmup; i++) {
+            call(method, target, args);
+            calibrationLoad();
+        }
+        Measurement m = new Measurement();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            call(method, target, args);
+            long called = System.nanoTime();
+            calibrationLoad();
+            long calibrated = System.nanoTime();
+            m.test.record(called - start);
+            m.calibration.record(calibrated - called);
+        }
+        return m;
+    }
+
+    private static void call(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Fails when the result misses the budget or the baseline, after relaxing
+     * both by the slowdown factor.
+     * @param slowdown  how many times slower this machine is than the reference, at least 1
+     */
+    static void check(PerfBudget budget, String key, double opsPerSec, long p99, double slowdown) {
+        if (budget.opsPerSec() > 0 && opsPerSec < budget.opsPerSec() / slowdown) {
+            fail(String.format(Locale.ROOT, "%s: %.0f ops/s is below the budget of %.0f ops/s",
+                key, opsPerSec, budget.opsPerSec() / slowdown));
+        }
+        if (budget.maxP99() > 0 && p99 > budget.maxP99() * slowdown) {
+            fail(String.format(Locale.ROOT, "%s: p99 of %dns exceeds the budget of %.0fns",
+                key, p99, budget.maxP99() * slowdown));
+        }
+        String entry = baseline().getProperty(key);
+        if (entry == null) return;
+
+        String[] parts = entry.trim().split("\\s+");
+        double baseOps = Double.parseDouble(parts[0]) / slowdown;
+        double baseP99 = Long.parseLong(parts[1]) * slowdown;
+        double tolerance = Double.parseDouble(System.getProperty("perf.tolerance", String.valueOf(budget.tolerance())));
+        if (opsPerSec < baseOps / (1 + tolerance)) {
+            fail(String.format(Locale.ROOT, "%s: %.0f ops/s regressed from the baseline of %.0f ops/s",
+                key, opsPerSec, baseOps));
+        }
+        if (p99 > baseP99 * (1 + tolerance)) {
+            fail(String.format(Locale.ROOT, "%s: p99 of %dns regressed from the baseline of %.0fns",
+                key, p99, baseP99));
+        }
+    }
+
+    /**
+     * Returns how many times slower the calibration workload ran than on the
+     * machine the baseline was recorded on, never less than 1.
+     * @param calibrationOps  measured throughput of the calibration workload
+     * @return double
+     */
+    static double slowdown(double calibrationOps) {
+        String forced = System.getProperty("perf.slowdown");
+        if (forced != null) return Math.max(1, Double.parseDouble(forced));
+        String entry = baseline().getProperty(CALIBRATION_KEY);
+        if (entry == null) return 1;
+        double reference = Double.parseDouble(entry.trim().split("\\s+")[0]);
+        return Math.max(1, reference / calibrationOps);
+    }
+
+    /** Fixed work of a few hundred nanoseconds, run between the timed test calls. */
+    private static void calibrationLoad() {
+        int x = calibrationState;
+        for (int i = 0; i < 256; i++) {
+            x = x * 31 + (x >>> 7) + i;
+        }
+        calibrationState = x;
+    }
+
+    private static Properties baseline() {
+        Properties p = baseline;
+        if (p == null) {
+            p = new Properties();
+            try (InputStream in = PerfBudgetExtension.class.getResourceAsStream(BASELINE_RESOURCE)) {
+                if (in != null) p.load(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read " + BASELINE_RESOURCE, e);
+            }
+            baseline = p;
+        }
+        return p;
+    }
+
+    private static void record(Path file, String key, double opsPerSec, long p99) throws IOException {
+        synchronized (RECORD_LOCK) {
+            Properties p = new Properties();
+            if (Files.exists(file)) {
+                try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    p.load(in);
+                }
+            }
+            p.setProperty(key, String.format(Locale.ROOT, "%.0f %d", opsPerSec, p99));
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                p.store(out, "PerfBudget baseline: opsPerSec p99Nanos");
+            }
+        }
+    }
+}
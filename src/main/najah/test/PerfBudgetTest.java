@@ -0,0 +1,108 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+@DisplayName("PerfBudget Tests")
+public class PerfBudgetTest {
+
+    static int calls;
+
+    @BeforeAll
+    static void beforeAll() {
+        // The class runs again when the suite and the classes share a JVM
+        calls = 0;
+    }
+
+    @Test
+    @PerfBudget(warmup = 10, iterations = 100, opsPerSec = 1_000)
+    @ResourceLock(value = PerfBudget.LOCK, mode = ResourceAccessMode.READ_WRITE)
+    @DisplayName("Budgeted test is run warmup + iterations + 1 times")
+    void testRepeatedInvocation() {
+        calls++;
+    }
+
+    @AfterAll
+    static void afterAll() {
+        assertEquals(Boolean.getBoolean("perf.skip") ? 1 : 111, calls);
+    }
+
+    @PerfBudget(opsPerSec = 1_000_000, maxP99 = 1_000)
+    void budgeted() {
+    }
+
+    @PerfBudget
+    void unbounded() {
+    }
+
+    private static PerfBudget budget() throws NoSuchMethodException {
+        return budget("budgeted");
+    }
+
+    private static PerfBudget budget(String method) throws NoSuchMethodException {
+        Method m = PerfBudgetTest.class.getDeclaredMethod(method);
+        return m.getAnnotation(PerfBudget.class);
+    }
+
+    @Test
+    @DisplayName("Result within the absolute budget passes")
+    void testWithinBudget() throws Exception {
+        PerfBudget b = budget();
+        assertDoesNotThrow(() -> PerfBudgetExtension.check(b, "PerfBudgetTest.budgeted", 2_000_000, 500, 1));
+    }
+
+    @Test
+    @DisplayName("Throughput below the budget fails")
+    void testThroughputBelowBudget() throws Exception {
+        PerfBudget b = budget();
+        assertThrows(AssertionError.class, () -> PerfBudgetExtension.check(b, "PerfBudgetTest.budgeted", 1_000, 500, 1));
+    }
+
+    @Test
+    @DisplayName("p99 above the budget fails")
+    void testLatencyAboveBudget() throws Exception {
+        PerfBudget b = budget();
+        assertThrows(AssertionError.class, () -> PerfBudgetExtension.check(b, "PerfBudgetTest.budgeted", 2_000_000, 5_000, 1));
+    }
+
+    @Test
+    @DisplayName("1000x slowdown against the stored baseline fails")
+    void testBaselineRegression() throws Exception {
+        PerfBudget b = budget("unbounded");
+        assertAll("Baseline checks",
+            () -> assertDoesNotThrow(() -> PerfBudgetExtension.check(b, "CalculatorTest.testAddWithTimeout", 1_000_000, 1_000, 1)),
+            () -> assertThrows(AssertionError.class,
+                () -> PerfBudgetExtension.check(b, "CalculatorTest.testAddWithTimeout", 1_000, 1_000, 1)),
+            () -> assertThrows(AssertionError.class,
+                () -> PerfBudgetExtension.check(b, "CalculatorTest.testAddWithTimeout", 1_000_000, 2_000_000, 1))
+        );
+    }
+
+    @Test
+    @DisplayName("A slower machine relaxes the budget and the baseline alike")
+    void testSlowdown() throws Exception {
+        PerfBudget b = budget();
+        PerfBudget u = budget("unbounded");
+        assertAll("Slowdown",
+            () -> assertThrows(AssertionError.class,
+                () -> PerfBudgetExtension.check(b, "PerfBudgetTest.budgeted", 400_000, 2_500, 1)),
+            () -> assertDoesNotThrow(() -> PerfBudgetExtension.check(b, "PerfBudgetTest.budgeted", 400_000, 2_500, 3)),
+            () -> assertDoesNotThrow(
+                () -> PerfBudgetExtension.check(u, "CalculatorTest.testAddWithTimeout", 100_000, 20_000, 10)),
+            () -> assertThrows(AssertionError.class,
+                () -> PerfBudgetExtension.check(u, "CalculatorTest.testAddWithTimeout", 1_000, 1_000, 10))
+        );
+    }
+
+    @Test
+    @DisplayName("Test without a stored baseline only checks the absolute budget")
+    void testNoBaseline() throws Exception {
+        PerfBudget b = budget("unbounded");
+        assertDoesNotThrow(() -> PerfBudgetExtension.check(b, "PerfBudgetTest.unbounded", 1, 1_000_000_000, 1));
+    }
+}
@@ -0,0 +1,79 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.*;
+
+import main.najah.code.PriceHistory;
+import main.najah.code.Product;
+
+@DisplayName("PriceHistory Tests")
+public class PriceHistoryTest {
+
+    AtomicLong now;
+    PriceHistory history;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1000);
+        history = new PriceHistory(now::get);
+    }
+
+    @Test
+    @DisplayName("Discounts applied to a product are recorded with their time")
+    void testProductHistory() {
+        Product p = new Product("Latte", 20.0);
+        p.setHistory(history);
+        now.set(2000);
+        p.applyDiscount(10);
+        now.set(3000);
+        p.applyDiscount(25);
+
+        assertAll("Price at time",
+            () -> assertEquals(3, history.size()),
+            () -> assertEquals(20.0, history.getFinalPriceAt(1500)),
+            () -> assertEquals(18.0, history.getFinalPriceAt(2000)),
+            () -> assertEquals(10.0, history.getDiscountAt(2999)),
+            () -> assertEquals(15.0, history.getFinalPriceAt(Long.MAX_VALUE)),
+            () -> assertEquals(20.0, history.getPriceAt(3000)),
+            () -> assertThrows(NoSuchElementException.class, () -> history.getPriceAt(999))
+        );
+    }
+
+    @Test
+    @DisplayName("Lookups are exact across many blocks")
+    void testManyBlocks() {
+        for (int i = 0; i < 1000; i++) history.record(i * 10L, 100 + i * 0.25, i % 51);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(100 + i * 0.25, history.getPriceAt(i * 10L + 9));
+            assertEquals(i % 51, history.getDiscountAt(i * 10L));
+        }
+        assertTrue(history.getEncodedBytes() < 1000 * 12, "Changes should take fewer bytes than the 24 of a raw entry");
+    }
+
+    @Test
+    @DisplayName("forEach visits every change in order")
+    void testForEach() {
+        history.record(10, 5.0, 0);
+        history.record(20, 5.0, 50);
+        history.record(15, 6.0, 50);
+
+        List<String> changes = new ArrayList<>();
+        history.forEach((time, price, discount) -> changes.add(time + " " + price + " " + discount));
+        assertEquals(List.of("10 5.0 0.0", "20 5.0 50.0", "20 6.0 50.0"), changes);
+    }
+
+    @Test
+    @DisplayName("Invalid discounts are not recorded")
+    void testInvalidDiscountNotRecorded() {
+        Product p = new Product("Mocha", 8.0);
+        p.setHistory(history);
+        assertThrows(IllegalArgumentException.class, () -> p.applyDiscount(60));
+        assertEquals(1, history.size());
+    }
+}
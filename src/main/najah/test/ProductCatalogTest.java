@@ -0,0 +1,100 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+import main.najah.code.Product;
+import main.najah.code.ProductCatalog;
+
+@DisplayName("ProductCatalog Tests")
+public class ProductCatalogTest {
+
+    Path file;
+    List<Product> products;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.createTempFile("catalog", ".bin");
+        Product latte = new Product("Latte", 4.5);
+        latte.applyDiscount(10);
+        products = List.of(new Product("Espresso", 3.0), latte, new Product("Café crème", 5.25));
+        ProductCatalog.write(file, products);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    @DisplayName("Views read back every product's name, price and discount")
+    void testReadBack() throws Exception {
+        ProductCatalog catalog = ProductCatalog.open(file);
+        assertEquals(3, catalog.size());
+        for (int i = 0; i < products.size(); i++) {
+            Product expected = products.get(i);
+            Product view = catalog.get(i);
+            assertAll("Entry " + i,
+                () -> assertEquals(expected.getName(), view.getName()),
+                () -> assertEquals(expected.getPrice(), view.getPrice()),
+                () -> assertEquals(expected.getDiscount(), view.getDiscount()),
+                () -> assertEquals(expected.getFinalPrice(), view.getFinalPrice())
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("One view can be moved across the whole catalog")
+    void testMoveTo() throws Exception {
+        ProductCatalog catalog = ProductCatalog.open(file);
+        ProductCatalog.View view = catalog.get(0);
+        double total = 0;
+        for (int i = 0; i < catalog.size(); i++) total += view.moveTo(i).getFinalPrice();
+        assertEquals(3.0 + 4.05 + 5.25, total, 1e-9);
+        assertThrows(IndexOutOfBoundsException.class, () -> view.moveTo(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> catalog.get(-1));
+    }
+
+    @Test
+    @DisplayName("Discounts are written through in a writable catalog and rejected in a read-only one")
+    void testApplyDiscount() throws Exception {
+        ProductCatalog writable = ProductCatalog.open(file, true);
+        writable.get(0).applyDiscount(20);
+        assertThrows(IllegalArgumentException.class, () -> writable.get(0).applyDiscount(60));
+
+        ProductCatalog readOnly = ProductCatalog.open(file);
+        assertAll("After discount",
+            () -> assertEquals(20.0, readOnly.get(0).getDiscount()),
+            () -> assertEquals(2.4, readOnly.get(0).getFinalPrice(), 1e-9),
+            () -> assertFalse(readOnly.isWritable()),
+            () -> assertThrows(ReadOnlyBufferException.class, () -> readOnly.get(1).applyDiscount(5))
+        );
+    }
+
+    @Test
+    @DisplayName("Files that are not catalogs are rejected when opened")
+    void testInvalidFile() throws Exception {
+        Files.writeString(file, "not a catalog");
+        assertThrows(IOException.class, () -> ProductCatalog.open(file));
+
+        ByteBuffer truncated = ProductCatalog.encode(products);
+        truncated.limit(40);
+        assertThrows(IOException.class, () -> ProductCatalog.wrap(truncated.slice()));
+    }
+
+    @Test
+    @DisplayName("An empty catalog has no entries")
+    void testEmpty() throws Exception {
+        ProductCatalog catalog = ProductCatalog.wrap(ProductCatalog.encode(List.of()));
+        assertEquals(0, catalog.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> catalog.get(0));
+    }
+}
@@ -3,6 +3,8 @@ package main.najah.test;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
@@ -93,6 +95,8 @@ public class ProductTest {
     }
 
     @Test
+    @PerfBudget(opsPerSec = 100_000, maxP99 = 50_000)
+    @ResourceLock(value = PerfBudget.LOCK, mode = ResourceAccessMode.READ_WRITE)
     @DisplayName("Apply 25% discount and check discount + final price")
     void testApplyDiscountMultipleAssertions() {
         p = new Product("Shoes", 200.0);
@@ -148,6 +152,8 @@ public class ProductTest {
     }
 
     @Test
+    @PerfBudget(opsPerSec = 100_000, maxP99 = 50_000)
+    @ResourceLock(value = PerfBudget.LOCK, mode = ResourceAccessMode.READ_WRITE)
     @DisplayName("getFinalPrice() completes within timeout")
     @Timeout(1) // seconds
     void testFinalPriceWithTimeout() {
@@ -0,0 +1,219 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.*;
+
+import main.najah.code.Product;
+import main.najah.code.PromotionScheduler;
+import main.najah.code.PromotionScheduler.Promotion;
+
+@DisplayName("PromotionScheduler Tests")
+public class PromotionSchedulerTest {
+
+    AtomicLong now;
+    PromotionScheduler scheduler;
+    Product latte;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0);
+        scheduler = new PromotionScheduler(10, now::get);
+        latte = new Product("Latte", 20);
+    }
+
+    private void advanceTo(long millis) {
+        now.set(millis);
+        scheduler.advance();
+    }
+
+    @Test
+    @DisplayName("A promotion applies its discount when it starts and restores the old one when it ends")
+    void testStartAndEnd() {
+        latte.applyDiscount(5);
+        Promotion p = scheduler.schedule(List.of(latte), 30, 100, 200);
+
+        advanceTo(99);
+        assertAll("Before start",
+            () -> assertEquals(5.0, latte.getDiscount()),
+            () -> assertTrue(p.isPending())
+        );
+        advanceTo(100);
+        assertAll("Started",
+            () -> assertEquals(30.0, latte.getDiscount()),
+            () -> assertTrue(p.isActive())
+        );
+        advanceTo(250);
+        assertAll("Ended",
+            () -> assertEquals(5.0, latte.getDiscount()),
+            () -> assertTrue(p.isEnded()),
+            () -> assertEquals(0, scheduler.getScheduled())
+        );
+    }
+
+    @Test
+    @DisplayName("Nested promotions restore the discount in effect when each started")
+    void testNested() {
+        scheduler.schedule(List.of(latte), 10, 100, 300);
+        scheduler.schedule(List.of(latte), 20, 200, 250);
+
+        advanceTo(220);
+        assertEquals(20.0, latte.getDiscount());
+        advanceTo(260);
+        assertEquals(10.0, latte.getDiscount());
+        advanceTo(300);
+        assertEquals(0.0, latte.getDiscount());
+    }
+
+    @Test
+    @DisplayName("Overlapping promotions that do not nest: the latest start wins, then the other, then the base")
+    void testOverlapping() {
+        latte.applyDiscount(5);
+        scheduler.schedule(List.of(latte), 10, 100, 250);
+        scheduler.schedule(List.of(latte), 20, 200, 300);
+
+        advanceTo(150);
+        assertEquals(10.0, latte.getDiscount());
+        advanceTo(210);
+        assertEquals(20.0, latte.getDiscount());
+        advanceTo(260);
+        assertEquals(20.0, latte.getDiscount());
+        advanceTo(310);
+        assertEquals(5.0, latte.getDiscount());
+        advanceTo(10_000);
+        assertEquals(5.0, latte.getDiscount());
+    }
+
+    @Test
+    @DisplayName("Ending the winning promotion falls back to the one started before it")
+    void testFallBackToEarlierStart() {
+        scheduler.schedule(List.of(latte), 10, 100, 400);
+        scheduler.schedule(List.of(latte), 30, 200, 300);
+        scheduler.schedule(List.of(latte), 20, 250, 350);
+
+        advanceTo(260);
+        assertEquals(20.0, latte.getDiscount());
+        advanceTo(310);
+        assertEquals(20.0, latte.getDiscount());
+        advanceTo(360);
+        assertEquals(10.0, latte.getDiscount());
+        advanceTo(400);
+        assertEquals(0.0, latte.getDiscount());
+    }
+
+    @Test
+    @DisplayName("A promotion never starts before its tick, across a turn of the wheel or after an early advance")
+    void testNotEarly() {
+        Promotion turn = scheduler.schedule(List.of(latte), 30, 640, 700);
+        advanceTo(630);
+        assertTrue(turn.isPending());
+        advanceTo(639);
+        assertTrue(turn.isPending());
+        advanceTo(640);
+        assertTrue(turn.isActive());
+
+        Product mocha = new Product("Mocha", 25);
+        advanceTo(710);
+        Promotion next = scheduler.schedule(List.of(mocha), 40, 720, 800);
+        advanceTo(715);
+        assertAll("Before its tick",
+            () -> assertTrue(next.isPending()),
+            () -> assertEquals(0.0, mocha.getDiscount())
+        );
+        advanceTo(720);
+        assertEquals(40.0, mocha.getDiscount());
+    }
+
+    @Test
+    @DisplayName("A product whose applyDiscount throws is counted and skipped, and nothing is applied twice")
+    void testApplyFailure() {
+        Product broken = new Product("Broken", 10) {
+            protected void storeDiscount(double discountPercentage) {
+                throw new UnsupportedOperationException("Read-only");
+            }
+        };
+        Promotion p = scheduler.schedule(List.of(broken, latte), 30, 100, 200);
+
+        advanceTo(100);
+        assertAll("Started",
+            () -> assertTrue(p.isActive()),
+            () -> assertEquals(30.0, latte.getDiscount()),
+            () -> assertEquals(1, scheduler.getFailures()),
+            () -> assertTrue(scheduler.getLastFailure() instanceof UnsupportedOperationException)
+        );
+        advanceTo(150);
+        assertAll("Not applied again",
+            () -> assertEquals(1, scheduler.getStarts()),
+            () -> assertEquals(1, scheduler.getFailures())
+        );
+        advanceTo(200);
+        assertAll("Ended",
+            () -> assertTrue(p.isEnded()),
+            () -> assertEquals(0.0, latte.getDiscount()),
+            () -> assertEquals(2, scheduler.getFailures())
+        );
+    }
+
+    @Test
+    @DisplayName("Cancelled promotions never start, and active ones end on the next tick")
+    void testCancel() {
+        Promotion pending = scheduler.schedule(List.of(latte), 40, 500, 600);
+        Promotion active = scheduler.schedule(List.of(latte), 25, 100, Long.MAX_VALUE);
+        advanceTo(100);
+
+        assertTrue(scheduler.cancel(pending));
+        assertTrue(scheduler.cancel(active));
+        advanceTo(110);
+        assertAll("After cancel",
+            () -> assertTrue(pending.isCancelled()),
+            () -> assertTrue(active.isEnded()),
+            () -> assertEquals(0.0, latte.getDiscount()),
+            () -> assertFalse(scheduler.cancel(active))
+        );
+        advanceTo(1000);
+        assertEquals(0.0, latte.getDiscount());
+    }
+
+    @Test
+    @DisplayName("Discounts outside 0-50% and empty time ranges are rejected when scheduling")
+    void testValidation() {
+        assertAll("Invalid promotions",
+            () -> assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(List.of(latte), 60, 10, 20)),
+            () -> assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(List.of(latte), -1, 10, 20)),
+            () -> assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(List.of(latte), 10, 20, 20))
+        );
+        assertEquals(0, scheduler.getScheduled());
+    }
+
+    @Test
+    @DisplayName("Promotions spread over every wheel level fire on their ticks")
+    void testAcrossLevels() {
+        Random random = new Random(11);
+        List<Product> products = new ArrayList<>();
+        List<long[]> times = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Product p = new Product("P" + i, 10);
+            long start = 1 + (long) (random.nextDouble() * 1e11);
+            long end = start + 1 + random.nextInt(1_000_000_000);
+            scheduler.schedule(List.of(p), 50, start, end);
+            products.add(p);
+            times.add(new long[] {start, end});
+        }
+        long[] checks = random.longs(50, 0, 110_000_000_000L).sorted().toArray();
+        for (long check : checks) {
+            advanceTo(check);
+            long tick = check / 10 * 10;
+            for (int i = 0; i < products.size(); i++) {
+                long start = (times.get(i)[0] + 9) / 10 * 10;
+                long end = (times.get(i)[1] + 9) / 10 * 10;
+                double expected = start <= tick && tick < end ? 50 : 0;
+                assertEquals(expected, products.get(i).getDiscount(), "Product " + i + " at " + check);
+            }
+        }
+    }
+}
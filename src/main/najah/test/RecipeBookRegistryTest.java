@@ -0,0 +1,95 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.*;
+
+@DisplayName("RecipeBookRegistry Tests")
+public class RecipeBookRegistryTest {
+
+    RecipeBookRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new RecipeBookRegistry(8, id -> new RecipeBook());
+    }
+
+    private static Recipe named(String name) {
+        Recipe r = new Recipe();
+        r.setName(name);
+        return r;
+    }
+
+    @Test
+    @DisplayName("Each store gets one book, created on first use")
+    void testBookPerStore() {
+        RecipeBook a = registry.book("store-1");
+        assertAll("Books",
+            () -> assertSame(a, registry.book("store-1")),
+            () -> assertSame(a, registry.get("store-1")),
+            () -> assertNotSame(a, registry.book("store-2")),
+            () -> assertNull(registry.get("store-3")),
+            () -> assertEquals(2, registry.size())
+        );
+    }
+
+    @Test
+    @DisplayName("Removing a store returns its book")
+    void testRemove() {
+        RecipeBook a = registry.book("store-1");
+        assertSame(a, registry.remove("store-1"));
+        assertNull(registry.remove("store-1"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    @DisplayName("Add to all stores adds a separate copy to every store")
+    void testAddToAllStores() {
+        for (int i = 0; i < 100; i++) registry.book("store-" + i);
+        assertEquals(100, registry.addToAllStores(named("Mocha")));
+        assertEquals(0, registry.addToAllStores(named("Mocha")), "Stores already have the recipe");
+
+        RecipeBook a = registry.book("store-1");
+        RecipeBook b = registry.book("store-2");
+        assertAll("Stores",
+            () -> assertEquals("Mocha", a.getRecipes()[0].getName()),
+            () -> assertNotSame(a.getRecipes()[0], b.getRecipes()[0]),
+            () -> assertSame(a.getMenu().get(0), b.getMenu().get(0), "Menus should share the interned recipe"),
+            () -> assertEquals(100, registry.getStoreIds().size())
+        );
+    }
+
+    @Test
+    @DisplayName("Concurrent lookups of a new store create a single book")
+    void testConcurrentCreate() throws InterruptedException {
+        ConcurrentHashMap<RecipeBook, Boolean> seen = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 200; i++) seen.put(registry.book("store-" + i), Boolean.TRUE);
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread t : threads) t.join();
+
+        assertEquals(200, registry.size());
+        assertEquals(200, seen.size());
+    }
+
+    @Test
+    @DisplayName("Invalid stripe count throws IllegalArgumentException")
+    void testInvalidStripes() {
+        assertThrows(IllegalArgumentException.class, () -> new RecipeBookRegistry(0, id -> new RecipeBook()));
+    }
+}
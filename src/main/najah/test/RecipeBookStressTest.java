@@ -0,0 +1,63 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import main.najah.bench.RecipeBookStress;
+import main.najah.bench.StressResult;
+
+@ResourceLock(PerfBudget.LOCK)
+@DisplayName("RecipeBook Stress Tests")
+public class RecipeBookStressTest {
+
+    @ParameterizedTest(name = "{0} threads")
+    @ValueSource(ints = {1, 4})
+    @DisplayName("Concurrent mixed workload keeps recipe names unique")
+    void testMixedWorkloadKeepsInvariants(int threads) throws InterruptedException {
+        RecipeBookStress stress = new RecipeBookStress(RecipeBook::new, 0.5, 200, 7);
+        StressResult result = stress.run(threads);
+
+        assertAll("Stress result",
+            () -> assertEquals(threads, result.getThreads()),
+            () -> assertTrue(result.getOpsPerSec() > 0),
+            () -> assertTrue(result.getLatency(RecipeBookStress.Op.ADD).getCount() > 0),
+            () -> assertTrue(result.getLatency(RecipeBookStress.Op.GET).getCount() > 0),
+            () -> assertTrue(result.getInvariantChecks() > 0),
+            () -> assertEquals(0, result.getInvariantViolations())
+        );
+    }
+
+    @Test
+    @DisplayName("Write-only workload issues no reads")
+    void testWriteOnly() throws InterruptedException {
+        StressResult result = new RecipeBookStress(RecipeBook::new, 0.0, 100, 1).run(2);
+        assertEquals(0, result.getLatency(RecipeBookStress.Op.GET).getCount());
+    }
+
+    @Test
+    @DisplayName("Duplicate names are detected")
+    void testNamesUniqueDetectsDuplicates() {
+        RecipeBook book = new RecipeBook();
+        Recipe a = new Recipe();
+        a.setName("Mocha");
+        book.addRecipe(a);
+        Recipe b = new Recipe();
+        b.setName("Latte");
+        book.addRecipe(b);
+        assertTrue(RecipeBookStress.namesUnique(book));
+
+        b.setName("Mocha");
+        assertFalse(RecipeBookStress.namesUnique(book));
+    }
+
+    @Test
+    @DisplayName("Read ratio above 1 throws IllegalArgumentException")
+    void testInvalidReadRatio() {
+        assertThrows(IllegalArgumentException.class, () -> new RecipeBookStress(RecipeBook::new, 1.5, 100, 1));
+    }
+}
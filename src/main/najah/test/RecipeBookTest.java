@@ -3,12 +3,16 @@ package main.najah.test;
 import main.najah.code.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -119,6 +123,161 @@ public class RecipeBookTest {
         assertThrows(ArrayIndexOutOfBoundsException.class, () -> book.deleteRecipe(5));
     }
 
+    @Test
+    @DisplayName("Deleted slots are reused by later adds")
+    void testDeletedSlotReused() {
+        for (int i = 1; i <= 4; i++) {
+            Recipe r = new Recipe();
+            r.setName("Recipe" + i);
+            book.addRecipe(r);
+        }
+        book.deleteRecipe(2);
+
+        Recipe r5 = new Recipe();
+        r5.setName("Recipe5");
+        assertTrue(book.addRecipe(r5));
+        assertSame(r5, book.getRecipes()[2]);
+    }
+
+    @Test
+    @DisplayName("Slots never run out after many add/delete cycles")
+    void testAddDeleteCycles() {
+        for (int i = 0; i < 1000; i++) {
+            Recipe r = new Recipe();
+            r.setName("Recipe" + i);
+            assertTrue(book.addRecipe(r));
+            assertEquals("Recipe" + i, book.deleteRecipe(0));
+        }
+        assertNull(book.getRecipes()[0]);
+    }
+
+    // ---------------------
+    // compact and stable id tests
+    // ---------------------
+
+    @Test
+    @DisplayName("Compact moves recipes to the lowest slots and keeps their ids")
+    void testCompact() {
+        for (int i = 1; i <= 4; i++) {
+            Recipe r = new Recipe();
+            r.setName("Recipe" + i);
+            book.addRecipe(r);
+        }
+        long id = book.getRecipeId(3);
+        book.deleteRecipe(0);
+        book.deleteRecipe(2);
+
+        int[] remap = book.compact();
+        Recipe[] recipes = book.getRecipes();
+
+        assertAll("After compact",
+            () -> assertArrayEquals(new int[] {-1, 0, -1, 1}, remap),
+            () -> assertEquals("Recipe2", recipes[0].getName()),
+            () -> assertEquals("Recipe4", recipes[1].getName()),
+            () -> assertNull(recipes[2]),
+            () -> assertNull(recipes[3]),
+            () -> assertEquals(id, book.getRecipeId(1)),
+            () -> assertEquals(1, book.getSlot(id)),
+            () -> assertEquals("Recipe4", book.getMenu().get(1).getName())
+        );
+        Recipe r5 = new Recipe();
+        r5.setName("Recipe5");
+        assertTrue(book.addRecipe(r5));
+        assertSame(r5, book.getRecipes()[2]);
+    }
+
+    @Test
+    @DisplayName("Ids are unique, survive edits and are gone after delete")
+    void testStableIds() {
+        Recipe r1 = new Recipe();
+        r1.setName("Latte");
+        book.addRecipe(recipe);
+        book.addRecipe(r1);
+        long id = book.getRecipeId(0);
+
+        assertNotEquals(id, book.getRecipeId(1));
+        book.editRecipe(0, new Recipe());
+        assertEquals(id, book.getRecipeId(0));
+        book.deleteRecipe(0);
+        assertEquals(-1, book.getRecipeId(0));
+        assertEquals(-1, book.getSlot(id));
+    }
+
+    // ---------------------
+    // version tests
+    // ---------------------
+
+    private void addNamed(String... names) {
+        for (String name : names) {
+            Recipe r = new Recipe();
+            r.setName(name);
+            book.addRecipe(r);
+        }
+    }
+
+    @Test
+    @DisplayName("Every change creates one version, compaction included")
+    void testVersions() {
+        assertEquals(0, book.getVersion());
+        addNamed("Recipe1", "Recipe2", "Recipe3");
+        book.deleteRecipe(0);
+        book.deleteRecipe(0);
+        assertEquals(4, book.getVersion(), "Deleting an empty slot changes nothing");
+        book.compact();
+        assertAll("Point-in-time reads",
+            () -> assertEquals(5, book.getVersion()),
+            () -> assertEquals("Recipe1", book.getRecipes(3)[0].getName()),
+            () -> assertNull(book.getRecipes(4)[0]),
+            () -> assertEquals("Recipe2", book.getMenu(5).get(0).getName()),
+            () -> assertThrows(IllegalArgumentException.class, () -> book.getRecipes(6))
+        );
+    }
+
+    @Test
+    @DisplayName("A pinned version survives later changes until it is closed")
+    void testPinnedVersion() {
+        book.setRetainedVersions(1);
+        addNamed("Recipe1", "Recipe2");
+        RecipeBook.Snapshot snapshot = book.pin();
+        book.deleteRecipe(0);
+        editAll("Latte");
+
+        assertAll("Pinned",
+            () -> assertEquals(2, snapshot.getVersion()),
+            () -> assertEquals("Recipe1", snapshot.getRecipes()[0].getName()),
+            () -> assertEquals("Recipe2", book.getMenu(2).get(1).getName()),
+            () -> assertEquals(List.of(2L, 4L), book.getAvailableVersions())
+        );
+        snapshot.close();
+        snapshot.close();
+        assertEquals(List.of(4L), book.getAvailableVersions());
+        assertThrows(IllegalArgumentException.class, () -> book.pin(2));
+    }
+
+    private void editAll(String name) {
+        Recipe[] recipes = book.getRecipes();
+        for (int i = 0; i < recipes.length; i++) {
+            if (recipes[i] != null) {
+                Recipe r = new Recipe();
+                r.setName(name);
+                book.editRecipe(i, r);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Recipes read at a version are copies")
+    void testVersionCopies() {
+        addNamed("Recipe1");
+        Recipe copy = book.getRecipes(1)[0];
+        copy.setName("Changed");
+        assertAll("Copies",
+            () -> assertEquals("Recipe1", book.getRecipes()[0].getName()),
+            () -> assertEquals("Recipe1", book.getRecipes(1)[0].getName()),
+            () -> assertThrows(IllegalArgumentException.class, () -> book.setRetainedVersions(0))
+        );
+    }
+
     // ---------------------
     // editRecipe tests
     // ---------------------
@@ -166,9 +325,11 @@ public class RecipeBookTest {
     }
 
     @Test
+    @PerfBudget(opsPerSec = 20_000, maxP99 = 50_000)
+    @ResourceLock(value = PerfBudget.LOCK, mode = ResourceAccessMode.READ_WRITE)
     @DisplayName("Retrieve recipes after add – multiple assertions on recipe")
     void testGetRecipesAfterAdd() {
-        book.addRecipe(recipe);
+        assertTrue(book.addRecipe(recipe));
         Recipe[] recipes = book.getRecipes();
         Recipe r = recipes[0];
 
@@ -180,6 +341,8 @@ public class RecipeBookTest {
             () -> assertEquals(0, r.getAmtChocolate()),
             () -> assertEquals(0, r.getAmtCoffee())
         );
+        // @PerfBudget repeats the test without @BeforeEach; leave the book empty for the next run
+        book.deleteRecipe(0);
     }
 
 
@@ -189,6 +352,8 @@ public class RecipeBookTest {
     // ---------------------
 
     @Test
+    @PerfBudget(opsPerSec = 100_000, maxP99 = 50_000)
+    @ResourceLock(value = PerfBudget.LOCK, mode = ResourceAccessMode.READ_WRITE)
     @Timeout(1)
     @DisplayName("Quick timeout test on recipe retrieval")
     void testTimeoutGetRecipes() {
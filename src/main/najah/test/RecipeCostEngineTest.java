@@ -0,0 +1,97 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.*;
+
+import main.najah.code.ImmutableRecipe;
+import main.najah.code.Recipe;
+import main.najah.code.RecipeCostEngine;
+import main.najah.code.RecipeCostEngine.Ingredient;
+import main.najah.code.RecipeException;
+
+@DisplayName("RecipeCostEngine Tests")
+public class RecipeCostEngineTest {
+
+    RecipeCostEngine engine;
+
+    @BeforeEach
+    void setUp() throws RecipeException {
+        engine = new RecipeCostEngine();
+        engine.setUnitPrice(Ingredient.COFFEE, 2);
+        engine.setUnitPrice(Ingredient.MILK, 0.5);
+        engine.setUnitPrice(Ingredient.SUGAR, 0.1);
+        engine.setUnitPrice(Ingredient.CHOCOLATE, 3);
+        engine.put(ImmutableRecipe.builder().name("Latte").price(10).amtCoffee(2).amtMilk(4).build());
+        engine.put(ImmutableRecipe.builder().name("Mocha").price(15).amtCoffee(2).amtMilk(2).amtSugar(5)
+            .amtChocolate(1).build());
+    }
+
+    @Test
+    @DisplayName("Cost and margin follow ingredient amounts and unit prices")
+    void testCostAndMargin() {
+        assertAll("Costs",
+            () -> assertEquals(6.0, engine.getCost("Latte"), 1e-9),
+            () -> assertEquals(4.0, engine.getMargin("Latte"), 1e-9),
+            () -> assertEquals(0.4, engine.getMarginRatio("Latte"), 1e-9),
+            () -> assertEquals(8.5, engine.getCost("Mocha"), 1e-9),
+            () -> assertEquals(14.5, engine.getTotalCost(), 1e-9),
+            () -> assertEquals(10.5, engine.getTotalMargin(), 1e-9),
+            () -> assertTrue(Double.isNaN(engine.getCost("Tea")))
+        );
+    }
+
+    @Test
+    @DisplayName("A unit price change updates every affected cost and notifies listeners")
+    void testPriceChange() {
+        List<Ingredient> changed = new ArrayList<>();
+        engine.addListener(changed::add);
+        engine.setUnitPrice(Ingredient.MILK, 1);
+
+        assertAll("After milk price change",
+            () -> assertEquals(8.0, engine.getCost("Latte"), 1e-9),
+            () -> assertEquals(9.5, engine.getCost("Mocha"), 1e-9),
+            () -> assertEquals(7.5, engine.getTotalMargin(), 1e-9),
+            () -> assertEquals(List.of(Ingredient.MILK), changed)
+        );
+        assertThrows(IllegalArgumentException.class, () -> engine.setUnitPrice(Ingredient.SUGAR, -1));
+    }
+
+    @Test
+    @DisplayName("Replacing and removing recipes keeps the totals exact")
+    void testPutAndRemove() throws RecipeException {
+        Recipe latte = new Recipe();
+        latte.setName("Latte");
+        latte.setPrice("12");
+        latte.setAmtCoffee("1");
+        engine.put(latte);
+        assertTrue(engine.remove("Mocha"));
+        assertFalse(engine.remove("Mocha"));
+
+        Map<String, Double> margins = engine.getMargins();
+        assertAll("After changes",
+            () -> assertEquals(1, engine.size()),
+            () -> assertEquals(10.0, margins.get("Latte"), 1e-9),
+            () -> assertEquals(2.0, engine.getTotalCost(), 1e-9),
+            () -> assertEquals(10.0, engine.getTotalMargin(), 1e-9)
+        );
+    }
+
+    @Test
+    @DisplayName("Many small price changes do not make the totals drift")
+    void testNoDrift() throws RecipeException {
+        for (int i = 0; i < 100; i++) {
+            engine.put(ImmutableRecipe.builder().name("R" + i).price(20).amtCoffee(i % 7).amtMilk(i % 5).build());
+        }
+        for (int i = 0; i < 10_000; i++) engine.setUnitPrice(Ingredient.COFFEE, 0.01 * (i % 300));
+        engine.setUnitPrice(Ingredient.COFFEE, 2);
+
+        double sum = 0;
+        for (double margin : engine.getMargins().values()) sum += margin;
+        assertEquals(sum, engine.getTotalMargin(), 1e-9);
+    }
+}
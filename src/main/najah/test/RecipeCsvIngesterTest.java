@@ -0,0 +1,144 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import main.najah.ingest.IngestReport;
+import main.najah.ingest.RecipeCsvIngester;
+
+@DisplayName("RecipeCsvIngester Tests")
+public class RecipeCsvIngesterTest {
+
+    static final String FEED = "name,price,coffee,milk,sugar,chocolate\n"
+        + "Mocha,50,3,1,1,2\n"
+        + "Latte,40,2,3,0,0\n"
+        + "\n"
+        + "Bad,-5,1,1,1,1\n"
+        + "Short,1,2\n"
+        + "Espresso,30,4,0,0,0\n";
+
+    List<ImmutableRecipe> accepted;
+
+    @BeforeEach
+    void setUp() {
+        accepted = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    private IngestReport ingest(String csv, int chunkSize) {
+        return new RecipeCsvIngester(chunkSize, 4, 10).ingest(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)),
+            columns -> accepted.addAll(columns.toRecipes()));
+    }
+
+    private List<String> acceptedNames() {
+        List<String> names = new ArrayList<>();
+        for (ImmutableRecipe r : accepted) names.add(r.getName());
+        Collections.sort(names);
+        return names;
+    }
+
+    @ParameterizedTest(name = "chunk size {0}")
+    @ValueSource(ints = {1, 7, 64, 1 << 20})
+    @DisplayName("Valid rows are accepted and invalid ones reported, whatever the chunk size")
+    void testIngest(int chunkSize) {
+        IngestReport report = ingest(FEED, chunkSize);
+
+        assertAll("Report",
+            () -> assertEquals(5, report.getRecords()),
+            () -> assertEquals(3, report.getAccepted()),
+            () -> assertEquals(2, report.getRejected()),
+            () -> assertEquals(List.of("Espresso", "Latte", "Mocha"), acceptedNames()),
+            () -> assertEquals(Long.valueOf(1), report.getErrorsByColumn().get("price")),
+            () -> assertEquals(Long.valueOf(1), report.getErrorsByColumn().get("chocolate")),
+            () -> assertEquals(5, report.getErrors().get(0).getLine()),
+            () -> assertEquals("-5", report.getErrors().get(0).getValue()),
+            () -> assertEquals("Price must be a positive integer", report.getErrors().get(0).getMessage()),
+            () -> assertEquals(6, report.getErrors().get(1).getLine())
+        );
+    }
+
+    @Test
+    @DisplayName("Amounts follow the same rules as the Recipe setters")
+    void testSameRulesAsSetters() {
+        String[] values = { "0", "-0", "+7", "007", "2147483647", "2147483648", "-1", "", "1.5", " 1", "+", "\u0663" };
+        StringBuilder csv = new StringBuilder("name,price,coffee,milk,sugar,chocolate\n");
+        for (int i = 0; i < values.length; i++) {
+            csv.append("R").append(i).append(",1,").append(values[i]).append(",0,0,0\n");
+        }
+        ingest(csv.toString(), 16);
+
+        for (int i = 0; i < values.length; i++) {
+            Recipe r = new Recipe();
+            boolean valid = true;
+            try {
+                r.setAmtCoffee(values[i]);
+            } catch (RecipeException e) {
+                valid = false;
+            }
+            String name = "R" + i;
+            ImmutableRecipe parsed = accepted.stream().filter(a -> a.getName().equals(name)).findFirst().orElse(null);
+            assertEquals(valid, parsed != null, "Value '" + values[i] + "'");
+            if (valid) assertEquals(r.getAmtCoffee(), parsed.getAmtCoffee());
+        }
+    }
+
+    @Test
+    @DisplayName("Header may reorder columns, add others and use amt names; fields may be quoted")
+    void testHeaderAndQuotes() {
+        IngestReport report = ingest("\uFEFFnote,AmtChocolate,Name,Price,amtSugar,amtMilk,amtCoffee\r\n"
+            + "x,1,\"Latte, \"\"big\"\"\",40,0,3,2\r\n", 1 << 20);
+
+        assertEquals(1, report.getAccepted());
+        ImmutableRecipe r = accepted.get(0);
+        assertAll("Recipe",
+            () -> assertEquals("Latte, \"big\"", r.getName()),
+            () -> assertEquals(40, r.getPrice()),
+            () -> assertEquals(2, r.getAmtCoffee()),
+            () -> assertEquals(3, r.getAmtMilk()),
+            () -> assertEquals(1, r.getAmtChocolate())
+        );
+    }
+
+    @Test
+    @DisplayName("A header without all recipe columns throws IllegalArgumentException")
+    void testMissingColumn() {
+        assertThrows(IllegalArgumentException.class, () -> ingest("name,price,coffee,milk,sugar\n", 64));
+    }
+
+    @Test
+    @DisplayName("Files are mapped and ingested in chunks")
+    void testFile() throws Exception {
+        StringBuilder csv = new StringBuilder("name,price,coffee,milk,sugar,chocolate\n");
+        for (int i = 0; i < 10_000; i++) {
+            csv.append("Recipe").append(i % 50).append(',').append(i % 100).append(",3,1,1,")
+                .append(i % 1000 == 0 ? "-1" : "2").append('\n');
+        }
+        Path file = Files.createTempFile("recipes", ".csv");
+        try {
+            Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+            IngestReport report = new RecipeCsvIngester(4096, 4, 3)
+                .ingest(file, columns -> accepted.addAll(columns.toRecipes()));
+
+            assertAll("Report",
+                () -> assertEquals(10_000, report.getRecords()),
+                () -> assertEquals(10, report.getRejected()),
+                () -> assertEquals(9_990, accepted.size()),
+                () -> assertEquals(3, report.getErrors().size()),
+                () -> assertEquals(1002, report.getErrors().get(1).getLine())
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
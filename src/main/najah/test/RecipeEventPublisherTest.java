@@ -0,0 +1,188 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.*;
+
+@DisplayName("RecipeEventPublisher Tests")
+public class RecipeEventPublisherTest {
+
+    RecipeEventPublisher publisher;
+    RecipeBook book;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new RecipeEventPublisher();
+        book = new RecipeBook(publisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.close();
+    }
+
+    /** Requests everything and records each batch it receives. */
+    static class Collector implements Flow.Subscriber<List<RecipeEvent>> {
+        final List<List<RecipeEvent>> batches = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        public void onSubscribe(Flow.Subscription subscription) { subscription.request(Long.MAX_VALUE); }
+        public void onNext(List<RecipeEvent> batch) { batches.add(batch); }
+        public void onError(Throwable throwable) { done.countDown(); }
+        public void onComplete() { done.countDown(); }
+
+        List<RecipeEvent> events() {
+            List<RecipeEvent> all = new ArrayList<>();
+            for (List<RecipeEvent> b : batches) all.addAll(b);
+            return all;
+        }
+    }
+
+    private static Recipe named(String name) {
+        Recipe r = new Recipe();
+        r.setName(name);
+        return r;
+    }
+
+    @Test
+    @DisplayName("Add, edit and delete are published in order")
+    void testEventsInOrder() throws InterruptedException {
+        Collector c = new Collector();
+        publisher.subscribe(c);
+
+        book.addRecipe(named("Mocha"));
+        book.editRecipe(0, named("Latte"));
+        book.deleteRecipe(0);
+        publisher.close();
+
+        assertTrue(c.done.await(1, TimeUnit.SECONDS));
+        List<RecipeEvent> events = c.events();
+        assertAll("Published events",
+            () -> assertEquals(3, events.size()),
+            () -> assertEquals(RecipeEvent.Type.ADDED, events.get(0).getType()),
+            () -> assertEquals("Mocha", events.get(0).getName()),
+            () -> assertEquals(RecipeEvent.Type.EDITED, events.get(1).getType()),
+            () -> assertEquals("Mocha", events.get(1).getName()),
+            () -> assertEquals(RecipeEvent.Type.DELETED, events.get(2).getType()),
+            () -> assertNull(events.get(2).getRecipe())
+        );
+    }
+
+    @Test
+    @DisplayName("A burst of changes is coalesced into one batch")
+    void testBurstCoalesced() throws InterruptedException {
+        Collector c = new Collector();
+        publisher.subscribe(c);
+
+        for (int i = 1; i <= 4; i++) {
+            book.addRecipe(named("Recipe" + i));
+        }
+        publisher.close();
+
+        assertTrue(c.done.await(1, TimeUnit.SECONDS));
+        assertEquals(1, c.batches.size());
+        assertEquals(4, c.batches.get(0).size());
+    }
+
+    @Test
+    @DisplayName("Batches never exceed the configured size")
+    void testBatchSizeLimit() throws InterruptedException {
+        RecipeEventPublisher small = new RecipeEventPublisher(Runnable::run, 16, 2, 1000);
+        Collector c = new Collector();
+        small.subscribe(c);
+        RecipeBook b = new RecipeBook(small);
+
+        for (int i = 1; i <= 4; i++) {
+            b.addRecipe(named("Recipe" + i));
+        }
+        small.close();
+
+        assertTrue(c.done.await(1, TimeUnit.SECONDS));
+        assertEquals(4, c.events().size());
+        for (List<RecipeEvent> batch : c.batches) {
+            assertTrue(batch.size() <= 2);
+        }
+    }
+
+    @Test
+    @DisplayName("Rejected changes publish nothing")
+    void testNoEventForFailedAdd() throws InterruptedException {
+        Collector c = new Collector();
+        publisher.subscribe(c);
+
+        book.addRecipe(named("Mocha"));
+        book.addRecipe(named("Mocha"));
+        book.deleteRecipe(3);
+        publisher.close();
+
+        assertTrue(c.done.await(1, TimeUnit.SECONDS));
+        assertEquals(1, c.events().size());
+    }
+
+    @Test
+    @DisplayName("A stalled subscriber makes new events drop once the queue is full")
+    void testQueueBounded() throws InterruptedException {
+        RecipeEventPublisher bounded = new RecipeEventPublisher(Runnable::run, 1, 1, 0, 4, 10_000);
+        List<Flow.Subscription> subscription = new CopyOnWriteArrayList<>();
+        Collector c = new Collector() {
+            public void onSubscribe(Flow.Subscription s) { subscription.add(s); }
+        };
+        bounded.subscribe(c);
+
+        int published = 100;
+        for (int i = 0; i < published; i++) {
+            bounded.publish(new RecipeEvent(RecipeEvent.Type.ADDED, i, "Recipe" + i, null));
+        }
+        assertTrue(bounded.getDroppedCount() > 0, "Nothing was dropped");
+        subscription.get(0).request(Long.MAX_VALUE);
+        bounded.close();
+
+        assertTrue(c.done.await(1, TimeUnit.SECONDS));
+        assertEquals(published, c.events().size() + bounded.getDroppedCount());
+    }
+
+    @Test
+    @Timeout(10)
+    @DisplayName("close() returns even if a subscriber never requests")
+    void testCloseWithStalledSubscriber() {
+        for (long offerTimeout : new long[] { 10, 300 }) {
+            Collector c = new Collector() {
+                public void onSubscribe(Flow.Subscription s) { }
+            };
+            RecipeEventPublisher stalled = new RecipeEventPublisher(Runnable::run, 1, 1, 0, 16, offerTimeout);
+            stalled.subscribe(c);
+            for (int i = 0; i < 10; i++) {
+                stalled.publish(new RecipeEvent(RecipeEvent.Type.ADDED, i, "Recipe" + i, null));
+            }
+            stalled.close();
+
+            // One batch fits the subscriber's buffer; the rest time out or are
+            // dropped by close() once it stops waiting for the flusher
+            assertEquals(9, stalled.getDroppedCount(), "Dropped with offer timeout " + offerTimeout);
+            assertTrue(c.batches.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid batch size throws IllegalArgumentException")
+    void testInvalidBatchSize() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new RecipeEventPublisher(Runnable::run, 16, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Book without a publisher still works")
+    void testBookWithoutPublisher() {
+        RecipeBook plain = new RecipeBook();
+        assertNull(plain.getEventPublisher());
+        assertTrue(plain.addRecipe(named("Mocha")));
+    }
+}
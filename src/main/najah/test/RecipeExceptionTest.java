@@ -0,0 +1,121 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("RecipeException Tests")
+public class RecipeExceptionTest {
+
+    Recipe recipe;
+
+    @BeforeEach
+    void setUp() {
+        recipe = new Recipe();
+    }
+
+    @Test
+    @DisplayName("Full mode keeps the stack trace")
+    void testFullMode() {
+        RecipeException e = assertThrows(RecipeException.class,
+            () -> recipe.setAmtCoffee("-1", RecipeException.Mode.FULL));
+        assertAll("Full exception",
+            () -> assertEquals("Units of coffee must be a positive integer", e.getMessage()),
+            () -> assertEquals(RecipeException.Ingredient.COFFEE, e.getIngredient()),
+            () -> assertTrue(e.getStackTrace().length > 0)
+        );
+    }
+
+    @Test
+    @DisplayName("Stackless mode has no stack trace and a new instance each time")
+    void testStacklessMode() {
+        RecipeException e1 = assertThrows(RecipeException.class,
+            () -> recipe.setAmtMilk("abc", RecipeException.Mode.STACKLESS));
+        RecipeException e2 = assertThrows(RecipeException.class,
+            () -> recipe.setAmtMilk("abc", RecipeException.Mode.STACKLESS));
+        assertAll("Stackless exception",
+            () -> assertEquals("Units of milk must be a positive integer", e1.getMessage()),
+            () -> assertEquals(0, e1.getStackTrace().length),
+            () -> assertNotSame(e1, e2)
+        );
+    }
+
+    @Test
+    @DisplayName("Cached mode reuses one instance per ingredient")
+    void testCachedMode() {
+        RecipeException e1 = assertThrows(RecipeException.class,
+            () -> recipe.setAmtSugar("-5", RecipeException.Mode.CACHED));
+        RecipeException e2 = assertThrows(RecipeException.class,
+            () -> new Recipe().setAmtSugar("x", RecipeException.Mode.CACHED));
+        RecipeException other = assertThrows(RecipeException.class,
+            () -> recipe.setPrice("-5", RecipeException.Mode.CACHED));
+        assertAll("Cached exception",
+            () -> assertSame(e1, e2),
+            () -> assertNotSame(e1, other),
+            () -> assertEquals(0, e1.getStackTrace().length),
+            () -> assertEquals("Price must be a positive integer", other.getMessage())
+        );
+    }
+
+    @Test
+    @DisplayName("Cached exceptions ignore suppressed exceptions")
+    void testCachedIsImmutable() {
+        RecipeException e = RecipeException.of(RecipeException.Ingredient.CHOCOLATE, RecipeException.Mode.CACHED);
+        e.addSuppressed(new IllegalStateException());
+        assertEquals(0, e.getSuppressed().length);
+    }
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource({
+        "PRICE, Price must be a positive integer",
+        "COFFEE, Units of coffee must be a positive integer",
+        "MILK, Units of milk must be a positive integer",
+        "SUGAR, Units of sugar must be a positive integer",
+        "CHOCOLATE, Units of chocolate must be a positive integer"
+    })
+    @DisplayName("Every mode keeps the existing messages")
+    void testMessages(RecipeException.Ingredient ingredient, String message) {
+        for (RecipeException.Mode mode : RecipeException.Mode.values()) {
+            assertEquals(message, RecipeException.of(ingredient, mode).getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Default mode applies to the setters without a mode")
+    void testDefaultMode() {
+        RecipeException.Mode previous = RecipeException.getDefaultMode();
+        RecipeException.setDefaultMode(RecipeException.Mode.CACHED);
+        try {
+            RecipeException e1 = assertThrows(RecipeException.class, () -> recipe.setAmtCoffee("-1"));
+            RecipeException e2 = assertThrows(RecipeException.class, () -> recipe.setAmtCoffee("-2"));
+            assertSame(e1, e2);
+        } finally {
+            RecipeException.setDefaultMode(previous);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "+7", "-0", "2147483647"})
+    @DisplayName("Values accepted by Integer.parseInt and non-negative are still valid")
+    void testValidValues(String value) throws RecipeException {
+        recipe.setAmtCoffee(value);
+        assertEquals(Integer.parseInt(value), recipe.getAmtCoffee());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "+", "-", "1.5", " 1", "2147483648", "-2147483648"})
+    @DisplayName("Malformed or out-of-range values are rejected")
+    void testInvalidValues(String value) {
+        assertThrows(RecipeException.class, () -> recipe.setAmtCoffee(value, RecipeException.Mode.STACKLESS));
+    }
+
+    @Test
+    @DisplayName("Exceptions created from a message have no ingredient")
+    void testLegacyConstructor() {
+        assertNull(new RecipeException("boom").getIngredient());
+    }
+}
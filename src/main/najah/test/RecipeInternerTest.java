@@ -0,0 +1,97 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.*;
+
+@DisplayName("RecipeInterner Tests")
+public class RecipeInternerTest {
+
+    RecipeInterner interner;
+
+    @BeforeEach
+    void setUp() {
+        interner = new RecipeInterner();
+    }
+
+    @Test
+    @DisplayName("Structurally equal recipes intern to the same instance")
+    void testSameInstance() throws RecipeException {
+        ImmutableRecipe a = ImmutableRecipe.builder().name("Mocha").price(50).amtCoffee(3).build();
+        ImmutableRecipe b = ImmutableRecipe.builder().name("Mocha").price(50).amtCoffee(3).build();
+
+        ImmutableRecipe canonical = interner.intern(a);
+        assertAll("Interned",
+            () -> assertSame(a, canonical),
+            () -> assertSame(canonical, interner.intern(b)),
+            () -> assertSame(canonical, interner.intern("Mocha", 50, 3, 0, 0, 0)),
+            () -> assertEquals(1, interner.size())
+        );
+    }
+
+    @Test
+    @DisplayName("Recipes differing in any value stay distinct")
+    void testDistinct() throws RecipeException {
+        ImmutableRecipe a = interner.intern("Mocha", 50, 3, 0, 0, 0);
+        ImmutableRecipe b = interner.intern("Mocha", 50, 3, 0, 0, 1);
+        assertNotSame(a, b);
+        assertEquals(2, interner.size());
+    }
+
+    @Test
+    @DisplayName("Mutable recipes intern by their current values")
+    void testInternMutableRecipe() throws RecipeException {
+        Recipe r = new Recipe();
+        r.setName("Latte");
+        r.setAmtMilk("3");
+        ImmutableRecipe canonical = interner.intern(r);
+        assertSame(canonical, interner.intern("Latte", 0, 0, 3, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Invalid values are rejected before interning")
+    void testValidation() {
+        assertThrows(RecipeException.class, () -> interner.intern("Bad", -1, 0, 0, 0, 0));
+        assertEquals(0, interner.size());
+    }
+
+    @Test
+    @DisplayName("Unreferenced recipes are evicted after garbage collection")
+    void testWeakEviction() throws Exception {
+        interner.intern("Temporary", 1, 1, 1, 1, 1);
+        for (int i = 0; i < 50 && interner.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, interner.size());
+    }
+
+    @Test
+    @DisplayName("Concurrent interning yields one canonical instance")
+    void testConcurrentIntern() throws InterruptedException {
+        Set<ImmutableRecipe> seen = ConcurrentHashMap.newKeySet();
+        Set<Integer> identities = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    try {
+                        ImmutableRecipe r = interner.intern("Shared", 10, 1, 1, 1, 1);
+                        seen.add(r);
+                        identities.add(System.identityHashCode(r));
+                    } catch (RecipeException e) {
+                        fail(e.getMessage());
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        assertEquals(1, seen.size());
+        assertEquals(1, identities.size());
+    }
+}
@@ -0,0 +1,118 @@
+package main.najah.test;
+
+import main.najah.code.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.*;
+
+@DisplayName("SalesLedger Tests")
+public class SalesLedgerTest {
+
+    AtomicLong now;
+    SalesLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000);
+        ledger = new SalesLedger(2, 1000, 3, now::get);
+    }
+
+    private static List<String> names(List<SalesLedger.RecipeSales> sales) {
+        return sales.stream().map(SalesLedger.RecipeSales::getName).toList();
+    }
+
+    @Test
+    @DisplayName("Totals add up per recipe and overall")
+    void testTotals() throws RecipeException {
+        Recipe mocha = new Recipe();
+        mocha.setName("Mocha");
+        mocha.setPrice("50");
+        ledger.record(mocha, 2);
+        ledger.record(ImmutableRecipe.builder().name("Latte").price(30).build(), 1);
+        ledger.record("Mocha", 50, 1);
+
+        SalesLedger.RecipeSales m = ledger.getRecipeSales("Mocha");
+        assertAll("Totals",
+            () -> assertEquals(3, ledger.getSales()),
+            () -> assertEquals(4, ledger.getUnits()),
+            () -> assertEquals(180, ledger.getRevenue()),
+            () -> assertEquals(2, m.getSales()),
+            () -> assertEquals(3, m.getUnits()),
+            () -> assertEquals(150, m.getRevenue()),
+            () -> assertEquals(0, ledger.getRecipeSales("Tea").getRevenue()),
+            () -> assertEquals(List.of("Latte", "Mocha"), names(ledger.getAllRecipeSales()))
+        );
+    }
+
+    @Test
+    @DisplayName("Top-K follows recipes that overtake the smallest member")
+    void testTopK() {
+        ledger.record("A", 10, 1);
+        ledger.record("B", 20, 1);
+        ledger.record("C", 5, 1);
+        assertEquals(List.of("B", "A"), names(ledger.getTopRecipes(2)));
+
+        ledger.record("C", 5, 3);
+        assertEquals(List.of("B", "C"), names(ledger.getTopRecipes(2)));
+
+        ledger.record("A", 10, 5);
+        assertEquals(List.of("A", "B"), names(ledger.getTopRecipes(2)));
+        assertEquals(List.of("A"), names(ledger.getTopRecipes(1)));
+    }
+
+    @Test
+    @DisplayName("Asking for more than the top-K size throws IllegalArgumentException")
+    void testTopKTooLarge() {
+        assertThrows(IllegalArgumentException.class, () -> ledger.getTopRecipes(3));
+    }
+
+    @Test
+    @DisplayName("Rollups cover the retained intervals only")
+    void testRollups() {
+        ledger.record("A", 10, 1);
+        now.addAndGet(1000);
+        ledger.record("A", 10, 2);
+        ledger.record("B", 5, 1);
+        now.addAndGet(2000);
+        ledger.record("A", 10, 1);
+
+        List<SalesLedger.Rollup> rollups = ledger.getRollups();
+        assertAll("Rollups",
+            () -> assertEquals(2, rollups.size()),
+            () -> assertEquals(1_001_000, rollups.get(0).getStartMillis()),
+            () -> assertEquals(2, rollups.get(0).getSales()),
+            () -> assertEquals(25, rollups.get(0).getRevenue()),
+            () -> assertEquals(10, rollups.get(1).getRevenue()),
+            () -> assertEquals(45, ledger.getRevenue())
+        );
+    }
+
+    @Test
+    @DisplayName("Concurrent sales are all counted")
+    void testConcurrentRecording() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) ledger.record("R" + (i % 5), i % 5 + 1, 1);
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+
+        assertEquals(40_000, ledger.getSales());
+        assertEquals(8_000 * 5 + 8_000 * 4, ledger.getRecipeSales("R4").getRevenue() + ledger.getRecipeSales("R3").getRevenue());
+        assertEquals(List.of("R4", "R3"), names(ledger.getTopRecipes(2)));
+    }
+
+    @Test
+    @DisplayName("Negative price or non-positive quantity throws IllegalArgumentException")
+    void testInvalidSale() {
+        assertAll("Invalid sales",
+            () -> assertThrows(IllegalArgumentException.class, () -> ledger.record("A", -1, 1)),
+            () -> assertThrows(IllegalArgumentException.class, () -> ledger.record("A", 1, 0))
+        );
+    }
+}
@@ -0,0 +1,56 @@
+package main.najah.test;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Splits the test classes deterministically across several JVMs.
+ * <p>
+ * With {@code junit.shard.count=N} and {@code junit.shard.index=i} set as
+ * system properties or in {@code junit-platform.properties}, only the test
+ * classes whose name hashes to shard {@code i} run; every other class is
+ * reported as disabled. Whole classes are assigned so that class-level
+ * fixtures run once. Registered through extension auto-detection.
+ */
+public class ShardCondition implements ExecutionCondition {
+
+    static final String COUNT_KEY = "junit.shard.count";
+    static final String INDEX_KEY = "junit.shard.index";
+
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        int count = context.getConfigurationParameter(COUNT_KEY).map(Integer::parseInt).orElse(1);
+        if (count <= 1 || !context.getTestClass().isPresent() || context.getTestMethod().isPresent()) {
+            return ConditionEvaluationResult.enabled("Sharding not active");
+        }
+        int index = context.getConfigurationParameter(INDEX_KEY).map(Integer::parseInt).orElse(0);
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException(INDEX_KEY + " must be between 0 and " + (count - 1));
+        }
+        Class<?> testClass = outermost(context.getTestClass().get());
+        int shard = shardOf(testClass.getName(), count);
+        return shard == index
+            ? ConditionEvaluationResult.enabled("In shard " + index + " of " + count)
+            : ConditionEvaluationResult.disabled("In shard " + shard + ", running shard " + index + " of " + count);
+    }
+
+    /**
+     * Returns the shard a test class belongs to. String hash codes are fixed by
+     * the language specification, so the answer is the same on every JVM.
+     * @param className   fully qualified test class name
+     * @param count       number of shards
+     * @return int between 0 and count - 1
+     */
+    static int shardOf(String className, int count) {
+        int h = className.hashCode();
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        h ^= h >>> 16;
+        return Math.floorMod(h, count);
+    }
+
+    private static Class<?> outermost(Class<?> c) {
+        while (c.getEnclosingClass() != null) c = c.getEnclosingClass();
+        return c;
+    }
+}
@@ -0,0 +1,42 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.*;
+import org.junit.platform.suite.api.SelectClasses;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("ShardCondition Tests")
+public class ShardConditionTest {
+
+    @ParameterizedTest(name = "{0} shards")
+    @ValueSource(ints = {1, 2, 3, 8})
+    @DisplayName("Every class maps to exactly one valid shard")
+    void testShardInRange(int count) {
+        for (Class<?> c : AllTests.class.getAnnotation(SelectClasses.class).value()) {
+            int shard = ShardCondition.shardOf(c.getName(), count);
+            assertTrue(shard >= 0 && shard < count, c.getName() + " -> " + shard);
+        }
+    }
+
+    @Test
+    @DisplayName("Shard assignment is deterministic")
+    void testDeterministic() {
+        String name = CalculatorTest.class.getName();
+        assertEquals(ShardCondition.shardOf(name, 4), ShardCondition.shardOf(name, 4));
+    }
+
+    @Test
+    @DisplayName("Many classes spread over all shards")
+    void testSpread() {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            used.add(ShardCondition.shardOf("main.najah.test.Generated" + i + "Test", 4));
+        }
+        assertEquals(4, used.size());
+    }
+}
@@ -0,0 +1,199 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.*;
+
+import main.najah.code.ImmutableRecipe;
+import main.najah.code.Recipe;
+import main.najah.code.RecipeBook;
+import main.najah.code.RecipeException;
+import main.najah.code.SharedMenu;
+
+@DisplayName("SharedMenu Tests")
+public class SharedMenuTest {
+
+    Path file;
+    SharedMenu writer;
+    SharedMenu reader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.createTempFile("menu", ".bin");
+        writer = SharedMenu.create(file, 4);
+        reader = SharedMenu.open(file);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.close();
+        Files.deleteIfExists(file);
+    }
+
+    private static ImmutableRecipe recipe(String name, int price) throws RecipeException {
+        return ImmutableRecipe.builder().name(name).price(price).amtCoffee(price).amtMilk(1).build();
+    }
+
+    @Test
+    @DisplayName("A published menu is read back from another mapping")
+    void testPublishAndRead() throws Exception {
+        assertEquals(Arrays.asList(null, null, null, null), reader.read());
+        writer.publish(Arrays.asList(recipe("Latte", 5), null, recipe("Café crème", 7)));
+
+        List<ImmutableRecipe> menu = reader.read();
+        assertAll("Menu",
+            () -> assertEquals(recipe("Latte", 5), menu.get(0)),
+            () -> assertNull(menu.get(1)),
+            () -> assertEquals("Café crème", menu.get(2).getName()),
+            () -> assertNull(menu.get(3)),
+            () -> assertSame(menu, reader.read(), "An unchanged menu is not decoded again")
+        );
+    }
+
+    @Test
+    @DisplayName("Following a RecipeBook publishes every change")
+    void testFollow() throws Exception {
+        RecipeBook book = new RecipeBook();
+        writer.follow(book);
+        long version = reader.getVersion();
+
+        Recipe mocha = new Recipe();
+        mocha.setName("Mocha");
+        mocha.setPrice("9");
+        book.addRecipe(mocha);
+        assertTrue(reader.awaitChange(version, 1, TimeUnit.SECONDS) > version);
+        assertEquals("Mocha", reader.read().get(0).getName());
+
+        book.deleteRecipe(0);
+        assertNull(reader.read().get(0));
+
+        writer.close();
+        book.addRecipe(mocha);
+        assertNull(reader.read().get(0), "A closed menu no longer follows the book");
+    }
+
+    @Test
+    @DisplayName("Only one writer can own a menu file, and readers cannot publish")
+    void testSingleWriter() throws Exception {
+        assertThrows(IOException.class, () -> SharedMenu.create(file, 4));
+        assertThrows(IllegalStateException.class, () -> reader.publish(List.of()));
+        assertFalse(reader.isWriter());
+    }
+
+    @Test
+    @DisplayName("Menus that do not fit are rejected")
+    void testLimits() throws Exception {
+        ImmutableRecipe r = recipe("Tea", 1);
+        assertThrows(IllegalArgumentException.class, () -> writer.publish(List.of(r, r, r, r, r)));
+        String longName = "x".repeat(SharedMenu.MAX_NAME_BYTES + 1);
+        assertThrows(IllegalArgumentException.class, () -> writer.publish(List.of(recipe(longName, 1))));
+    }
+
+    @Test
+    @DisplayName("A followed book keeps working when a recipe does not fit the menu")
+    void testFollowSkipsWhatDoesNotFit() throws Exception {
+        Path small = Files.createTempFile("small", ".bin");
+        try (SharedMenu two = SharedMenu.create(small, 2)) {
+            RecipeBook book = new RecipeBook();
+            two.follow(book);
+            Recipe longName = new Recipe();
+            longName.setName("x".repeat(SharedMenu.MAX_NAME_BYTES + 1));
+            assertTrue(book.addRecipe(longName));
+            for (String name : List.of("Mocha", "Latte", "Tea")) {
+                Recipe r = new Recipe();
+                r.setName(name);
+                assertTrue(book.addRecipe(r));
+            }
+            assertEquals("Mocha", book.deleteRecipe(1));
+
+            List<ImmutableRecipe> menu = SharedMenu.open(small).read();
+            assertAll("Menu",
+                () -> assertNull(menu.get(0)),
+                () -> assertNull(menu.get(1)),
+                () -> assertEquals(3, two.getSkipped(), "The long name and the two recipes past the last slot")
+            );
+            assertEquals("Tea", book.editRecipe(3, new Recipe()));
+            assertEquals(3, two.getSkipped(), "Changes elsewhere do not count the same recipes again");
+        } finally {
+            Files.deleteIfExists(small);
+        }
+    }
+
+    @Test
+    @DisplayName("A writer that died mid-publish does not hang readers")
+    void testWriterDiedMidPublish() throws Exception {
+        writer.publish(List.of(recipe("Latte", 5)));
+        List<ImmutableRecipe> before = reader.read();
+        writer.close();
+        // Leave the sequence number odd, as a writer killed during publish would
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer seq = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder()).putLong(0, 101);
+            ch.write(seq, 16);
+        }
+
+        assertSame(before, reader.read(10, TimeUnit.MILLISECONDS), "A reader falls back to its last snapshot");
+        assertThrows(IllegalStateException.class, () -> SharedMenu.open(file).read(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("A slot with an impossible name length is reported as corrupt")
+    void testCorruptSlot() throws Exception {
+        writer.publish(List.of(recipe("Latte", 5)));
+        writer.close();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(4).putInt(0, SharedMenu.MAX_NAME_BYTES + 1), 64);
+            ch.write(ByteBuffer.allocate(8).order(ByteOrder.nativeOrder()).putLong(0, 1000), 16);
+        }
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> reader.read());
+        assertTrue(e.getMessage().startsWith("Corrupt menu slot"));
+    }
+
+    @Test
+    @DisplayName("Readers never see a half-written menu")
+    void testConsistentReads() throws Exception {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread publisher = new Thread(() -> {
+            try {
+                for (int i = 0; i < 20_000; i++) writer.publish(List.of(recipe("R" + i, i), recipe("S" + i, i)));
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        publisher.start();
+        while (publisher.isAlive()) {
+            List<ImmutableRecipe> menu = reader.read();
+            if (menu.get(0) == null) continue;
+            int i = menu.get(0).getPrice();
+            assertEquals("R" + i, menu.get(0).getName());
+            assertEquals(i, menu.get(0).getAmtCoffee());
+            assertEquals("S" + i, menu.get(1).getName());
+        }
+        publisher.join();
+        assertNull(failure.get());
+        assertEquals("R19999", reader.read().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Files that are not menus are rejected")
+    void testNotAMenu() throws Exception {
+        Path other = Files.createTempFile("other", ".bin");
+        try {
+            Files.writeString(other, "not a menu, just some text that is long enough to hold a header");
+            assertThrows(IOException.class, () -> SharedMenu.open(other));
+        } finally {
+            Files.deleteIfExists(other);
+        }
+    }
+}